@@ -0,0 +1,62 @@
+#!/usr/bin/env bash
+#
+# Runs the load test suite three times and writes the throughput and p99 latency of every run per workload to
+# target/logging-report.md:
+#   - sync:  the development logging setup (SQL statements and application INFO logs as plain text), written on
+#            the request threads (logging.async.enabled=false)
+#   - async: the same logging, written by the background appender thread
+#   - prod:  the prod logging profile (JSON, no SQL logging), written by the background appender thread
+#
+# Usage: scripts/logging-report.sh [extra maven arguments, e.g. -Dloadtest.users=100000]
+
+set -euo pipefail
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+WORK="${ROOT}/target/loadtest"
+REPORT="${ROOT}/target/logging-report.md"
+# Application logs are at INFO in every run; the baseline check is off since the runs are compared to each other.
+LOGGING=(-Dlogging.level.ua.dtsebulia.testassignment=INFO -Dloadtest.baseline=off)
+DEV_LOGGING=(-Dlogging.level.org.hibernate.SQL=DEBUG)
+RUNS=(sync async prod)
+
+cd "${ROOT}"
+mkdir -p "${WORK}"
+
+echo "Load test with synchronous development logging"
+mvn -B -Pload-test test "${LOGGING[@]}" "${DEV_LOGGING[@]}" -Dlogging.async.enabled=false \
+    -Dloadtest.results="${WORK}/results-sync-logging.properties" "$@" > "${WORK}/sync-logging.log" 2>&1
+
+echo "Load test with asynchronous development logging"
+mvn -B -Pload-test test "${LOGGING[@]}" "${DEV_LOGGING[@]}" -Dlogging.async.enabled=true \
+    -Dloadtest.results="${WORK}/results-async-logging.properties" "$@" > "${WORK}/async-logging.log" 2>&1
+
+echo "Load test with prod logging"
+mvn -B -Pload-test test "${LOGGING[@]}" -Dspring.profiles.include=prod \
+    -Dloadtest.results="${WORK}/results-prod-logging.properties" "$@" > "${WORK}/prod-logging.log" 2>&1
+
+# Prints the value of a metric from a results file.
+metric() {
+    grep "^$2=" "$1" | cut -d= -f2
+}
+
+{
+    echo "# Logging report"
+    echo
+    echo "Load test results on $(uname -srm), $(java -version 2>&1 | head -n 1)."
+    echo
+    echo "| Workload | Throughput sync (req/s) | Throughput async (req/s) | Throughput prod (req/s)" \
+         "| p99 sync (ms) | p99 async (ms) | p99 prod (ms) |"
+    echo "|----------|-------------------------|--------------------------|-------------------------" \
+         "|---------------|----------------|---------------|"
+    for workload in read_heavy signup_spike range_scan_heavy; do
+        row="| ${workload}"
+        for key in throughput p99Millis; do
+            for run in "${RUNS[@]}"; do
+                row+=" | $(metric "${WORK}/results-${run}-logging.properties" "${workload}.${key}")"
+            done
+        done
+        echo "${row} |"
+    done
+} > "${REPORT}"
+
+cat "${REPORT}"
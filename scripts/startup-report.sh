@@ -0,0 +1,93 @@
+#!/usr/bin/env bash
+#
+# Measures startup time and first request latency of the default build against the fast-startup build
+# (Spring AOT + class data sharing archive + lazy initialization) and writes target/startup-report.md.
+#
+# Needs a running MySQL reachable with the datasource settings of application.properties, or override them
+# through SPRING_DATASOURCE_URL / SPRING_DATASOURCE_USERNAME / SPRING_DATASOURCE_PASSWORD.
+#
+# Usage: scripts/startup-report.sh [runs]
+
+set -euo pipefail
+
+RUNS="${1:-5}"
+PORT="${PORT:-8080}"
+BASE_URL="http://localhost:${PORT}"
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+WORK="${ROOT}/target/startup"
+REPORT="${ROOT}/target/startup-report.md"
+
+now_ms() {
+    date +%s%3N
+}
+
+# Starts the application with the given command, waits until it answers and prints
+# "<startup ms> <first request ms>", then stops it.
+measure() {
+    local start ready first pid
+    start=$(now_ms)
+    "$@" --server.port="${PORT}" > "${WORK}/app.log" 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "${BASE_URL}/actuator/health"; do
+        if ! kill -0 "${pid}" 2> /dev/null; then
+            echo "Application failed to start, see ${WORK}/app.log" >&2
+            exit 1
+        fi
+        sleep 0.05
+    done
+    ready=$(now_ms)
+    first=$(curl -s -o /dev/null -w '%{time_total}' "${BASE_URL}/api/users/1")
+    kill -TERM "${pid}"
+    wait "${pid}" || true
+    echo "$((ready - start)) $(awk -v s="${first}" 'BEGIN { printf "%d", s * 1000 }')"
+}
+
+# Runs measure RUNS times and prints "<median startup ms> <median first request ms>".
+measure_median() {
+    local results
+    results=$(for _ in $(seq "${RUNS}"); do measure "$@"; done)
+    echo "$(echo "${results}" | awk '{ print $1 }' | sort -n | awk '{ a[NR] = $1 } END { print a[int((NR + 1) / 2)] }')" \
+         "$(echo "${results}" | awk '{ print $2 }' | sort -n | awk '{ a[NR] = $1 } END { print a[int((NR + 1) / 2)] }')"
+}
+
+rm -rf "${WORK}" && mkdir -p "${WORK}"
+cd "${ROOT}"
+
+echo "Building default jar"
+mvn -B -q -DskipTests package
+cp target/TestAssignment-*.jar "${WORK}/default.jar"
+
+echo "Building fast-startup jar"
+mvn -B -q -DskipTests -Pfast-startup package
+
+# Class data sharing can only archive classes loaded from jars on the class path, so unpack the fat jar
+# and repackage the application classes into a plain jar.
+mkdir -p "${WORK}/exploded"
+(cd "${WORK}/exploded" && jar xf "${ROOT}"/target/TestAssignment-*.jar)
+jar cf "${WORK}/application.jar" -C "${WORK}/exploded/BOOT-INF/classes" .
+CLASSPATH="${WORK}/application.jar:$(find "${WORK}/exploded/BOOT-INF/lib" -name '*.jar' | sort | paste -sd ':')"
+FAST_STARTUP=(java -Dspring.aot.enabled=true -Dspring.profiles.active=fast-startup -cp "${CLASSPATH}")
+MAIN_CLASS=ua.dtsebulia.testassignment.TestAssignmentApplication
+
+echo "Training run to create the class data sharing archive"
+measure "${FAST_STARTUP[@]}" -XX:ArchiveClassesAtExit="${WORK}/application.jsa" "${MAIN_CLASS}" > /dev/null
+
+echo "Measuring default build"
+read -r DEFAULT_STARTUP DEFAULT_FIRST < <(measure_median java -jar "${WORK}/default.jar")
+
+echo "Measuring fast-startup build"
+read -r FAST_STARTUP_MS FAST_FIRST < <(measure_median "${FAST_STARTUP[@]}" -XX:SharedArchiveFile="${WORK}/application.jsa" "${MAIN_CLASS}")
+
+cat > "${REPORT}" << EOF
+# Startup report
+
+Median of ${RUNS} runs on $(uname -srm), $(java -version 2>&1 | head -n 1).
+Startup is measured from launching the JVM until /actuator/health answers; first request is GET /api/users/1.
+
+| Build        | Startup (ms)       | First request (ms) |
+|--------------|--------------------|--------------------|
+| default      | ${DEFAULT_STARTUP} | ${DEFAULT_FIRST}   |
+| fast-startup | ${FAST_STARTUP_MS} | ${FAST_FIRST}      |
+EOF
+
+cat "${REPORT}"
@@ -2,8 +2,10 @@ package ua.dtsebulia.testassignment;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class TestAssignmentApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,25 @@
+package ua.dtsebulia.testassignment.cache;
+
+/**
+ * Names of the Hibernate second-level cache regions, as configured in ehcache.xml.
+ */
+public final class CacheRegions {
+
+    /**
+     * Entity region holding users by ID.
+     */
+    public static final String USER = "user";
+
+    /**
+     * Query region holding the results of lookups by email.
+     */
+    public static final String USER_BY_EMAIL = "user-by-email";
+
+    /**
+     * Query region holding the results of birthday range queries.
+     */
+    public static final String USER_BIRTHDAY_RANGE = "user-birthday-range";
+
+    private CacheRegions() {
+    }
+}
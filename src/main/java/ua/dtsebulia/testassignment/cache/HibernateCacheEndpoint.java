@@ -0,0 +1,68 @@
+package ua.dtsebulia.testassignment.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Actuator endpoint at /actuator/hibernatecache showing the hit ratio of every second-level cache region.
+ */
+@Component
+@Endpoint(id = "hibernatecache")
+public class HibernateCacheEndpoint {
+
+    private final Statistics statistics;
+
+    public HibernateCacheEndpoint(EntityManagerFactory entityManagerFactory) {
+        this(entityManagerFactory.unwrap(SessionFactory.class).getStatistics());
+    }
+
+    HibernateCacheEndpoint(Statistics statistics) {
+        this.statistics = statistics;
+    }
+
+    @ReadOperation
+    public Map<String, RegionStatistics> regions() {
+        Map<String, RegionStatistics> regions = new TreeMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = regionStatistics(regionName);
+            if (region != null) {
+                regions.put(regionName, RegionStatistics.of(region));
+            }
+        }
+        return regions;
+    }
+
+    // Hibernate counts query cache lookups apart from the statistics of the region that holds the results.
+    private CacheRegionStatistics regionStatistics(String regionName) {
+        CacheRegionStatistics queryRegion = statistics.getQueryRegionStatistics(regionName);
+        return queryRegion != null ? queryRegion : statistics.getCacheRegionStatistics(regionName);
+    }
+
+    /**
+     * Counters of a cache region since startup.
+     *
+     * @param hits     Lookups answered from the cache.
+     * @param misses   Lookups that went to the database.
+     * @param puts     Entries stored in the cache.
+     * @param hitRatio Share of lookups answered from the cache, 0 if there were none.
+     * @param elements Entries currently held on the heap, -1 if unknown.
+     */
+    public record RegionStatistics(long hits, long misses, long puts, double hitRatio, long elements) {
+
+        static RegionStatistics of(CacheRegionStatistics region) {
+            long hits = region.getHitCount();
+            long misses = region.getMissCount();
+            long lookups = hits + misses;
+            return new RegionStatistics(hits, misses, region.getPutCount(),
+                    lookups == 0 ? 0 : (double) hits / lookups, region.getElementCountInMemory());
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package ua.dtsebulia.testassignment.cache;
+
+import jakarta.persistence.SharedCacheMode;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the Hibernate second-level cache.
+ * <p>
+ * The cache itself is set up in application.properties and ehcache.xml. This class switches the user entity region
+ * on or off with cache.user.enabled. The cache statistics are published as hibernate.* metrics by Spring Boot's
+ * Hibernate metrics auto-configuration, since hibernate-micrometer is on the classpath.
+ */
+@Configuration(proxyBeanMethods = false)
+public class SecondLevelCacheConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer entityCacheCustomizer(@Value("${cache.user.enabled}") boolean userCacheEnabled) {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.JAKARTA_SHARED_CACHE_MODE,
+                userCacheEnabled ? SharedCacheMode.ENABLE_SELECTIVE : SharedCacheMode.NONE);
+    }
+}
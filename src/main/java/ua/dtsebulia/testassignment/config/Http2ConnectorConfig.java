@@ -0,0 +1,45 @@
+package ua.dtsebulia.testassignment.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.UpgradeProtocol;
+import org.apache.coyote.http2.Http2Protocol;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.time.Duration;
+
+/**
+ * Configuration of HTTP/2 multiplexing for the http2 profile.
+ * <p>
+ * Tomcat's defaults allow 100 streams per connection, of which 20 are processed at a time. A gateway multiplexing
+ * many small lookups over a few connections would queue behind that, so both limits are raised here. Without TLS
+ * the connector speaks h2c, through an upgrade or with prior knowledge.
+ */
+@Configuration(proxyBeanMethods = false)
+@Profile("http2")
+@Slf4j
+public class Http2ConnectorConfig {
+
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> http2ProtocolCustomizer(
+            @Value("${http2.maxConcurrentStreams}") long maxConcurrentStreams,
+            @Value("${http2.maxConcurrentStreamExecution}") int maxConcurrentStreamExecution,
+            @Value("${http2.keepAliveTimeout}") Duration keepAliveTimeout,
+            @Value("${http2.initialWindowSize}") int initialWindowSize) {
+        return factory -> factory.addConnectorCustomizers(connector -> {
+            for (UpgradeProtocol upgradeProtocol : connector.findUpgradeProtocols()) {
+                if (upgradeProtocol instanceof Http2Protocol http2) {
+                    http2.setMaxConcurrentStreams(maxConcurrentStreams);
+                    http2.setMaxConcurrentStreamExecution(maxConcurrentStreamExecution);
+                    http2.setKeepAliveTimeout(keepAliveTimeout.toMillis());
+                    http2.setInitialWindowSize(initialWindowSize);
+                    log.info("HTTP/2 enabled with {} concurrent streams per connection", maxConcurrentStreams);
+                }
+            }
+        });
+    }
+}
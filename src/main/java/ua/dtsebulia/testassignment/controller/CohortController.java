@@ -0,0 +1,65 @@
+package ua.dtsebulia.testassignment.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import ua.dtsebulia.testassignment.exception.InvalidAgeBracketException;
+import ua.dtsebulia.testassignment.model.AgeBracket;
+import ua.dtsebulia.testassignment.service.CohortService;
+
+import java.util.Arrays;
+
+/**
+ * Controller class for reading precomputed user cohorts.
+ */
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/cohorts")
+@Slf4j
+public class CohortController {
+
+    private final CohortService cohortService;
+
+    /**
+     * Get the number of users per age bracket and birth month.
+     *
+     * @return ResponseEntity containing the counts of all cohorts.
+     */
+    @GetMapping
+    public ResponseEntity<?> getCohortCounts() {
+        log.info("Getting all cohort counts");
+        return ResponseEntity.ok(cohortService.getCohortCounts());
+    }
+
+    /**
+     * Get the number of users per birth month in an age bracket.
+     *
+     * @param bracket The name of the age bracket, e.g. AGE_18_24.
+     * @return ResponseEntity containing the counts of the bracket or an error message if the bracket doesn't exist.
+     */
+    @GetMapping("{bracket}")
+    public ResponseEntity<?> getCohortCounts(@PathVariable String bracket) {
+        log.info("Getting cohort counts of bracket {}", bracket);
+        try {
+            return ResponseEntity.ok(cohortService.getCohortCounts(AgeBracket.fromName(bracket)));
+        } catch (InvalidAgeBracketException ex) {
+            log.error("Unknown age bracket: {}", bracket);
+            return ResponseEntity
+                    .status(HttpStatus.BAD_REQUEST)
+                    .body("Age bracket must be one of " + Arrays.toString(AgeBracket.values()));
+        }
+    }
+
+    /**
+     * Get the users who reach the minimum age this week.
+     *
+     * @return ResponseEntity containing the users, ordered by birthday.
+     */
+    @GetMapping("/turning-minimum-age")
+    public ResponseEntity<?> getUsersTurningMinimumAgeThisWeek() {
+        log.info("Getting users turning the minimum age this week");
+        return ResponseEntity.ok(cohortService.getUsersTurningMinimumAgeThisWeek());
+    }
+}
@@ -0,0 +1,63 @@
+package ua.dtsebulia.testassignment.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ua.dtsebulia.testassignment.model.UserChange;
+import ua.dtsebulia.testassignment.service.UserChangeService;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Controller class for consuming the feed of user changes.
+ */
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/users/changes")
+@Slf4j
+public class UserChangeController {
+
+    private final UserChangeService userChangeService;
+
+    @Value("${changeFeed.maxPollTimeout}")
+    private Duration maxPollTimeout;
+
+    /**
+     * Get changes after a sequence number, waiting for new ones if there are none yet.
+     *
+     * @param since       The last sequence number the consumer has seen.
+     * @param waitSeconds How long to wait for a change before answering with an empty list.
+     * @return The changes ordered by sequence number, possibly empty.
+     */
+    @GetMapping
+    public DeferredResult<List<UserChange>> getChanges(@RequestParam(defaultValue = "0") long since,
+                                                       @RequestParam(defaultValue = "30") long waitSeconds) {
+        log.info("Polling user changes since {}", since);
+        Duration timeout = Duration.ofSeconds(Math.max(1, waitSeconds));
+        if (timeout.compareTo(maxPollTimeout) > 0) {
+            timeout = maxPollTimeout;
+        }
+        return userChangeService.pollChanges(since, timeout);
+    }
+
+    /**
+     * Stream changes as Server-Sent Events.
+     *
+     * @param since       The last sequence number the consumer has seen.
+     * @param lastEventId Sent by reconnecting clients, takes precedence over since.
+     * @return Emitter sending one event per change.
+     */
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestParam(defaultValue = "0") long since,
+                                    @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        long position = lastEventId != null ? lastEventId : since;
+        log.info("Streaming user changes since {}", position);
+        return userChangeService.streamChanges(position);
+    }
+
+}
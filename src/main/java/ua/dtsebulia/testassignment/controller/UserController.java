@@ -7,9 +7,12 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ua.dtsebulia.testassignment.exception.*;
+import ua.dtsebulia.testassignment.logging.PiiRedaction;
 import ua.dtsebulia.testassignment.model.User;
 import ua.dtsebulia.testassignment.service.UserService;
 
+import static net.logstash.logback.argument.StructuredArguments.kv;
+
 /**
  * Controller class for managing user-related operations.
  */
@@ -24,11 +27,14 @@ public class UserController {
     /**
      * Get all users.
      *
-     * @return ResponseEntity containing a list of all users.
+     * @return ResponseEntity containing a list of all users, each with its tenant ID if all tenants are read.
      */
     @GetMapping
     public ResponseEntity<?> getAllUsers() {
         log.info("Getting all users");
+        if (userService.isFanOutRequest()) {
+            return ResponseEntity.ok(userService.getAllUsersOfAllTenants());
+        }
         return ResponseEntity.ok(userService.getAllUsers());
     }
 
@@ -63,6 +69,9 @@ public class UserController {
     public ResponseEntity<?> getUserByBirthdayRange(@RequestParam String from, @RequestParam String to) {
         log.info("Getting users with birthdays between {} and {}", from, to);
         try {
+            if (userService.isFanOutRequest()) {
+                return ResponseEntity.ok(userService.getUserByBirthdayRangeOfAllTenants(from, to));
+            }
             return ResponseEntity.ok(userService.getUserByBirthdayRange(from, to));
         } catch (InvalidDateRangeException ex) {
             log.error("'from' date must be before 'to' date");
@@ -86,7 +95,7 @@ public class UserController {
     @PostMapping
     public ResponseEntity<?> createUser(@RequestBody @Valid User user) {
         try {
-            log.info("Creating user {}", user);
+            log.info("Creating user {}", kv("email", PiiRedaction.email(user.getEmail())));
             User createdUser = userService.createUser(user);
             return new ResponseEntity<>(createdUser, HttpStatus.CREATED);
         } catch (MinimumAgeException ex) {
@@ -95,7 +104,7 @@ public class UserController {
                     .status(HttpStatus.BAD_REQUEST)
                     .body("User is not above minimum age");
         } catch (UserAlreadyExistsException ex) {
-            log.error("User with email {} already exists", user.getEmail());
+            log.error("User with email {} already exists", PiiRedaction.email(user.getEmail()));
             return ResponseEntity
                     .status(HttpStatus.BAD_REQUEST)
                     .body("User with email " + user.getEmail() + " already exists");
@@ -131,7 +140,7 @@ public class UserController {
                     .status(HttpStatus.BAD_REQUEST)
                     .body("User is not above minimum age");
         } catch (UserAlreadyExistsException ex) {
-            log.error("User with email {} already exists", user.getEmail());
+            log.error("User with email {} already exists", PiiRedaction.email(user.getEmail()));
             return ResponseEntity
                     .status(HttpStatus.BAD_REQUEST)
                     .body("User with email " + user.getEmail() + " already exists");
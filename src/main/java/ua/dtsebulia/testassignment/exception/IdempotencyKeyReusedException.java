@@ -0,0 +1,10 @@
+package ua.dtsebulia.testassignment.exception;
+
+/**
+ * Exception thrown when an idempotency key is reused for a request with a different body.
+ */
+public class IdempotencyKeyReusedException extends RuntimeException {
+    public IdempotencyKeyReusedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package ua.dtsebulia.testassignment.exception;
+
+/**
+ * Exception thrown when an age bracket does not exist.
+ */
+public class InvalidAgeBracketException extends RuntimeException {
+    public InvalidAgeBracketException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,250 @@
+package ua.dtsebulia.testassignment.idempotency;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import ua.dtsebulia.testassignment.exception.IdempotencyKeyReusedException;
+import ua.dtsebulia.testassignment.tenant.TenantContext;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Filter that makes user creation safe to retry.
+ * <p>
+ * A POST to /api/users carrying an Idempotency-Key header is executed at most once per key. Retries get the
+ * original successful response replayed without reaching the controller, and concurrent duplicates wait for
+ * the request that is already in flight. Reusing a key for a request with a different body is rejected with
+ * 422 Unprocessable Entity. The body is held in memory to hash it, so bodies larger than idempotency.maxBodySize are
+ * rejected with 413 Content Too Large before they are read in full.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private final IdempotencyStore idempotencyStore;
+
+    @Value("${idempotency.waitTimeout}")
+    private Duration waitTimeout;
+
+    @Value("${idempotency.maxBodySize}")
+    private DataSize maxBodySize;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod())
+                || !"/api/users".equals(request.getRequestURI())
+                || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            writePlainText(response, HttpStatus.BAD_REQUEST,
+                    IDEMPOTENCY_KEY_HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+
+        String key = TenantContext.getTenantId() + " " + request.getMethod() + " " + request.getRequestURI()
+                + " " + idempotencyKey;
+        // The body is read up front to hash it, the controller gets it replayed from memory.
+        // Reading one byte past the limit catches chunked bodies, which come without a Content-Length.
+        int maxBytes = Math.toIntExact(maxBodySize.toBytes());
+        byte[] body = request.getContentLengthLong() > maxBytes
+                ? null
+                : request.getInputStream().readNBytes(maxBytes + 1);
+        if (body == null || body.length > maxBytes) {
+            writePlainText(response, HttpStatus.PAYLOAD_TOO_LARGE,
+                    "Request body must not be larger than " + maxBytes + " bytes");
+            return;
+        }
+        CachedBodyRequest cachedRequest = new CachedBodyRequest(request, body);
+        String requestHash = sha256(body);
+
+        while (true) {
+            CompletableFuture<IdempotentResponse> inFlight;
+            try {
+                inFlight = idempotencyStore.claim(key, requestHash);
+            } catch (IdempotencyKeyReusedException ex) {
+                log.warn("Idempotency key {} was reused for a different request", idempotencyKey);
+                writePlainText(response, HttpStatus.UNPROCESSABLE_ENTITY,
+                        IDEMPOTENCY_KEY_HEADER + " " + idempotencyKey + " was already used for a different request");
+                return;
+            }
+            if (inFlight == null) {
+                executeAndStore(key, cachedRequest, response, filterChain);
+                return;
+            }
+
+            IdempotentResponse original;
+            try {
+                original = inFlight.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            } catch (TimeoutException ex) {
+                log.warn("Request with idempotency key {} is still in progress", idempotencyKey);
+                writePlainText(response, HttpStatus.CONFLICT,
+                        "Request with " + IDEMPOTENCY_KEY_HEADER + " " + idempotencyKey + " is still in progress");
+                return;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                writePlainText(response, HttpStatus.SERVICE_UNAVAILABLE, "Request was interrupted");
+                return;
+            } catch (ExecutionException ex) {
+                original = null;
+            }
+
+            if (original != null) {
+                log.info("Replaying response for idempotency key {}", idempotencyKey);
+                replay(original, response);
+                return;
+            }
+            // The owner failed and released the key, try to claim it ourselves.
+        }
+    }
+
+    // Helper methods to run the request and keep its response if it succeeded.
+
+    private void executeAndStore(String key, HttpServletRequest request, HttpServletResponse response,
+                                 FilterChain filterChain) throws ServletException, IOException {
+
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        boolean stored = false;
+        try {
+            filterChain.doFilter(request, responseWrapper);
+            if (HttpStatusCode.valueOf(responseWrapper.getStatus()).is2xxSuccessful()) {
+                idempotencyStore.complete(key, new IdempotentResponse(
+                        responseWrapper.getStatus(),
+                        responseWrapper.getContentType(),
+                        responseWrapper.getContentAsByteArray()
+                ));
+                stored = true;
+            }
+        } finally {
+            if (!stored) {
+                idempotencyStore.release(key);
+            }
+            responseWrapper.copyBodyToResponse();
+        }
+    }
+
+    private static void replay(IdempotentResponse original, HttpServletResponse response) throws IOException {
+        response.setStatus(original.status());
+        if (original.contentType() != null) {
+            response.setContentType(original.contentType());
+        }
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(original.body().length);
+        response.getOutputStream().write(original.body());
+    }
+
+    private static void writePlainText(HttpServletResponse response, HttpStatus status, String message)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write(message);
+    }
+
+    private static String sha256(byte[] body) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    /**
+     * Request whose body has been read into memory, so it can be both hashed and passed down the chain.
+     */
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        private CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream in = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return in.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return in.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return in.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    // The body is already in memory, so all of it can be read right away.
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        readListener.onAllDataRead();
+                    } catch (IOException ex) {
+                        readListener.onError(ex);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(getInputStream(), charset));
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package ua.dtsebulia.testassignment.idempotency;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ua.dtsebulia.testassignment.exception.IdempotencyKeyReusedException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded in-memory store of responses keyed by idempotency key.
+ * <p>
+ * A key is first claimed by the request that executes it. Requests arriving with the same key while it is
+ * in flight wait on the owner's result instead of executing again. Every entry remembers the hash of the request
+ * that claimed it, so a key reused for a different request is rejected instead of replayed. Completed responses are
+ * kept for the configured TTL; when the store is full, the completed entries closest to expiry are evicted first.
+ * Since the TTL is fixed, completion order is expiry order, and both purging and eviction take entries off the head
+ * of a queue instead of scanning the store.
+ */
+@Component
+public class IdempotencyStore {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry> completed = new ConcurrentLinkedQueue<>();
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final LongSupplier nanoClock;
+
+    @Autowired
+    public IdempotencyStore(@Value("${idempotency.ttl}") Duration ttl,
+                            @Value("${idempotency.maxEntries}") int maxEntries) {
+        this(ttl, maxEntries, System::nanoTime);
+    }
+
+    IdempotencyStore(Duration ttl, int maxEntries, LongSupplier nanoClock) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Claim a key for execution.
+     *
+     * @param key         The idempotency key.
+     * @param requestHash Hash of the request, a later claim of the key must carry the same hash.
+     * @return null if the caller now owns the key and must execute the request, otherwise the future
+     * holding the owner's response. The future completes with null if the owner failed and released the key.
+     * @throws IdempotencyKeyReusedException If the key was claimed by a request with a different hash.
+     */
+    public CompletableFuture<IdempotentResponse> claim(String key, String requestHash) {
+        while (true) {
+            Entry fresh = new Entry(key, requestHash);
+            Entry existing = entries.putIfAbsent(key, fresh);
+            if (existing == null) {
+                evictIfFull();
+                return null;
+            }
+            if (!existing.isExpired(nanoClock.getAsLong())) {
+                if (!existing.requestHash.equals(requestHash)) {
+                    throw new IdempotencyKeyReusedException(
+                            "Idempotency key " + key + " was already used for a different request");
+                }
+                return existing.response;
+            }
+            if (entries.replace(key, existing, fresh)) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Store the response of a claimed key and release everyone waiting on it.
+     *
+     * @param key      The idempotency key.
+     * @param response The response to replay for retries.
+     */
+    public void complete(String key, IdempotentResponse response) {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            entry.expiresAt = nanoClock.getAsLong() + ttlNanos;
+            completed.add(entry);
+            entry.response.complete(response);
+        }
+    }
+
+    /**
+     * Give up a claimed key without storing a response, so that a retry can execute it again.
+     *
+     * @param key The idempotency key.
+     */
+    public void release(String key) {
+        Entry entry = entries.remove(key);
+        if (entry != null) {
+            entry.response.complete(null);
+        }
+    }
+
+    /**
+     * Remove all completed entries whose TTL has passed.
+     */
+    @Scheduled(fixedDelayString = "${idempotency.purgeInterval}")
+    public void purgeExpired() {
+        long now = nanoClock.getAsLong();
+        Entry oldest;
+        while ((oldest = completed.peek()) != null && oldest.isExpired(now)) {
+            if (completed.remove(oldest)) {
+                entries.remove(oldest.key, oldest);
+            }
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    // Helper method to keep the store bounded, in-flight entries are never evicted.
+
+    private void evictIfFull() {
+        while (entries.size() > maxEntries) {
+            Entry oldest = completed.poll();
+            if (oldest == null) {
+                return;
+            }
+            entries.remove(oldest.key, oldest);
+        }
+    }
+
+    private static final class Entry {
+
+        private final String key;
+        private final String requestHash;
+        private final CompletableFuture<IdempotentResponse> response = new CompletableFuture<>();
+        private volatile long expiresAt = Long.MAX_VALUE;
+
+        private Entry(String key, String requestHash) {
+            this.key = key;
+            this.requestHash = requestHash;
+        }
+
+        private boolean isExpired(long now) {
+            return response.isDone() && now - expiresAt >= 0;
+        }
+    }
+}
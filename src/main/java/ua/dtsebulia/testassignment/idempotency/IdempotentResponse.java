@@ -0,0 +1,11 @@
+package ua.dtsebulia.testassignment.idempotency;
+
+/**
+ * Snapshot of a completed response that is replayed for retries carrying the same idempotency key.
+ *
+ * @param status      HTTP status of the original response.
+ * @param contentType Content type of the original response, may be null.
+ * @param body        Raw body of the original response.
+ */
+public record IdempotentResponse(int status, String contentType, byte[] body) {
+}
@@ -0,0 +1,32 @@
+package ua.dtsebulia.testassignment.logging;
+
+/**
+ * Masks personal data before it is written to logs.
+ * <p>
+ * Log user fields one by one through these methods instead of logging the entity, so that a newly added field
+ * never ends up in the logs unmasked.
+ */
+public final class PiiRedaction {
+
+    private static final String MASK = "***";
+
+    private PiiRedaction() {
+    }
+
+    /**
+     * Mask the local part of an email address, keeping its first character and the domain.
+     *
+     * @param email The email address, may be null.
+     * @return The masked address, e.g. j***@example.com.
+     */
+    public static String email(String email) {
+        if (email == null) {
+            return null;
+        }
+        int at = email.lastIndexOf('@');
+        if (at <= 0) {
+            return MASK;
+        }
+        return email.charAt(0) + MASK + email.substring(at);
+    }
+}
@@ -0,0 +1,54 @@
+package ua.dtsebulia.testassignment.model;
+
+import ua.dtsebulia.testassignment.exception.InvalidAgeBracketException;
+
+/**
+ * Age brackets users are grouped into for cohort statistics.
+ */
+public enum AgeBracket {
+    UNDER_18(0),
+    AGE_18_24(18),
+    AGE_25_34(25),
+    AGE_35_44(35),
+    AGE_45_54(45),
+    AGE_55_64(55),
+    AGE_65_PLUS(65);
+
+    private final int minimumAge;
+
+    AgeBracket(int minimumAge) {
+        this.minimumAge = minimumAge;
+    }
+
+    public int getMinimumAge() {
+        return minimumAge;
+    }
+
+    /**
+     * @param name Name of the bracket, case-insensitive.
+     * @return The bracket.
+     * @throws InvalidAgeBracketException If there is no bracket with that name.
+     */
+    public static AgeBracket fromName(String name) {
+        for (AgeBracket bracket : values()) {
+            if (bracket.name().equalsIgnoreCase(name)) {
+                return bracket;
+            }
+        }
+        throw new InvalidAgeBracketException("Unknown age bracket: " + name);
+    }
+
+    /**
+     * @param age Age in full years.
+     * @return The bracket the age falls into.
+     */
+    public static AgeBracket of(int age) {
+        AgeBracket[] brackets = values();
+        for (int i = brackets.length - 1; i > 0; i--) {
+            if (age >= brackets[i].minimumAge) {
+                return brackets[i];
+            }
+        }
+        return UNDER_18;
+    }
+}
@@ -0,0 +1,24 @@
+package ua.dtsebulia.testassignment.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Represents the number of users in a cohort, kept up to date as users change.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Entity
+public class CohortCount {
+
+    @EmbeddedId
+    private CohortKey id;
+
+    @Column(nullable = false)
+    private long userCount;
+}
@@ -0,0 +1,28 @@
+package ua.dtsebulia.testassignment.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * Identifies a cohort by age bracket and birth month.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Embeddable
+public class CohortKey implements Serializable {
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private AgeBracket bracket;
+
+    @Column(nullable = false)
+    private int birthMonth;
+}
@@ -0,0 +1,28 @@
+package ua.dtsebulia.testassignment.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Represents the date up to which the ages in the cohort table are current.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Entity
+public class CohortRollover {
+
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    @Column(nullable = false)
+    private LocalDate lastRolloverDate;
+}
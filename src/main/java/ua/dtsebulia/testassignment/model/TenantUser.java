@@ -0,0 +1,23 @@
+package ua.dtsebulia.testassignment.model;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Represents a user read across all tenants, together with the tenant it belongs to.
+ * <p>
+ * User IDs are only unique within a tenant, so the tenant ID is needed to tell users apart and to fetch one back.
+ * The user's fields are serialized next to the tenant ID.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class TenantUser {
+
+    private String tenantId;
+
+    @JsonUnwrapped
+    private User user;
+}
@@ -1,5 +1,6 @@
 package ua.dtsebulia.testassignment.model;
 
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -7,6 +8,10 @@ import jakarta.persistence.Id;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import ua.dtsebulia.testassignment.cache.CacheRegions;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.Past;
 import jakarta.validation.constraints.NotNull;
@@ -15,11 +20,16 @@ import java.util.Date;
 
 /**
  * Represents a user entity in the system.
+ * <p>
+ * Personal data is left out of {@link #toString()}, so logging a user never writes it to the logs.
+ * Users are kept in the second-level cache, unless cache.user.enabled is false.
  */
 @AllArgsConstructor
 @NoArgsConstructor
 @Data
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheRegions.USER)
 public class User {
 
     @Id
@@ -27,20 +37,26 @@ public class User {
     private Integer id;
 
     @NotNull(message = "First name is required")
+    @ToString.Exclude
     private String firstName;
 
     @NotNull(message = "Last name is required")
+    @ToString.Exclude
     private String lastName;
 
     @NotNull(message = "Email is required")
     @Email(message = "Email must be valid")
+    @ToString.Exclude
     private String email;
 
     @NotNull(message = "Date of birth is required")
     @Past(message = "Date of birth must be in the past")
+    @ToString.Exclude
     private Date dateOfBirth;
 
+    @ToString.Exclude
     private String address;
+    @ToString.Exclude
     private String phoneNumber;
 
 }
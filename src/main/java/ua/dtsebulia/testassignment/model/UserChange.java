@@ -0,0 +1,47 @@
+package ua.dtsebulia.testassignment.model;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+
+/**
+ * Represents an entry of the append-only user change log.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Entity
+public class UserChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long sequenceNumber;
+
+    @Column(nullable = false)
+    private Integer userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private UserChangeType type;
+
+    @Column(nullable = false)
+    private Date changedAt;
+
+    /**
+     * JSON snapshot of the user after the change, null for deletions.
+     */
+    @JsonRawValue
+    @Column(columnDefinition = "TEXT")
+    private String payload;
+
+}
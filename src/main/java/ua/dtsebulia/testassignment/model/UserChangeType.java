@@ -0,0 +1,10 @@
+package ua.dtsebulia.testassignment.model;
+
+/**
+ * Kind of mutation recorded in the user change log.
+ */
+public enum UserChangeType {
+    CREATED,
+    UPDATED,
+    DELETED
+}
@@ -0,0 +1,40 @@
+package ua.dtsebulia.testassignment.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Represents the cohort a user currently belongs to.
+ * <p>
+ * The age is advanced by the daily rollover on the user's birthday, so it is never computed from the date of
+ * birth when reading. The indexes on the birthday and on age and birthday are created by the V4 migration only,
+ * like the user lookup indexes, so a schema built by ddl-auto can still be migrated by Flyway.
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Entity
+public class UserCohortEntry {
+
+    @Id
+    private Integer userId;
+
+    @Column(nullable = false)
+    private int birthMonth;
+
+    @Column(nullable = false)
+    private int birthDay;
+
+    @Column(nullable = false)
+    private int age;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private AgeBracket bracket;
+}
@@ -0,0 +1,81 @@
+package ua.dtsebulia.testassignment.ratelimit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decides whether the application is too busy to accept a request.
+ * <p>
+ * Connection pool pressure is sampled in the background from the current number of threads waiting for a Hikari
+ * connection, so the request path only reads a volatile flag and an in-flight counter, and shedding stops with the
+ * first sample after the pool has recovered. While the pool is saturated expensive requests are shed;
+ * once the number of in-flight requests exceeds its limit every request is shed.
+ */
+@Component
+@Slf4j
+public class LoadShedder {
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger inFlightRequests = new AtomicInteger();
+
+    @Value("${loadShedding.maxInFlightRequests}")
+    private int maxInFlightRequests;
+
+    @Value("${loadShedding.maxPendingConnections}")
+    private double maxPendingConnections;
+
+    private volatile boolean poolSaturated;
+
+    public LoadShedder(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge("loadshedding.inflight", inFlightRequests);
+    }
+
+    /**
+     * Register a request that is about to be processed.
+     *
+     * @param cost The cost class of the request.
+     * @return True if the request was admitted and {@link #release()} must be called when it completes,
+     * false if it has to be shed.
+     */
+    public boolean tryAdmit(RequestCost cost) {
+        if (cost == RequestCost.EXPENSIVE && poolSaturated) {
+            return false;
+        }
+        if (inFlightRequests.incrementAndGet() > maxInFlightRequests) {
+            inFlightRequests.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Mark an admitted request as completed.
+     */
+    public void release() {
+        inFlightRequests.decrementAndGet();
+    }
+
+    /**
+     * Sample connection pool pressure from the Hikari metrics of the busiest pool, e.g. one of the tenant shards.
+     */
+    @Scheduled(fixedDelayString = "${loadShedding.sampleInterval}")
+    public void samplePoolPressure() {
+        double pending = meterRegistry.find("hikaricp.connections.pending").gauges().stream()
+                .mapToDouble(Gauge::value)
+                .max()
+                .orElse(0);
+        boolean saturated = pending > maxPendingConnections;
+
+        if (saturated != poolSaturated) {
+            log.warn("Connection pool {}", saturated ? "saturated, shedding expensive requests" : "recovered");
+            poolSaturated = saturated;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package ua.dtsebulia.testassignment.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filter that applies per-client rate limits and load shedding to the REST API.
+ * <p>
+ * Clients are identified by the X-API-Key header if it holds one of the configured keys, otherwise by address,
+ * so a client can't get a fresh budget by sending a new key with every request. Behind a gateway or load balancer
+ * listed in rateLimit.trustedProxies, the address is taken from X-Forwarded-For, so proxied clients don't all share
+ * the proxy's budget. Rate limited requests
+ * get 429 and shed requests get 503, both with a Retry-After header. Every decision is counted in the
+ * ratelimit.requests metric, tagged by cost class and outcome.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    public static final String API_KEY_HEADER = "X-API-Key";
+    public static final String FORWARDED_FOR_HEADER = "X-Forwarded-For";
+
+    private final RateLimiter rateLimiter;
+    private final LoadShedder loadShedder;
+    private final Map<RequestCost, Map<Outcome, Counter>> decisions = new EnumMap<>(RequestCost.class);
+
+    @Value("${rateLimit.enabled}")
+    private boolean rateLimitEnabled;
+
+    @Value("${rateLimit.apiKeys}")
+    private Set<String> apiKeys;
+
+    @Value("${rateLimit.trustedProxies}")
+    private Set<String> trustedProxies;
+
+    @Value("${loadShedding.enabled}")
+    private boolean loadSheddingEnabled;
+
+    @Value("${loadShedding.retryAfter}")
+    private Duration shedRetryAfter;
+
+    public RateLimitFilter(RateLimiter rateLimiter, LoadShedder loadShedder, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.loadShedder = loadShedder;
+        for (RequestCost cost : RequestCost.values()) {
+            Map<Outcome, Counter> counters = new EnumMap<>(Outcome.class);
+            for (Outcome outcome : Outcome.values()) {
+                counters.put(outcome, Counter.builder("ratelimit.requests")
+                        .tag("cost", cost.name().toLowerCase())
+                        .tag("outcome", outcome.name().toLowerCase())
+                        .register(meterRegistry));
+            }
+            decisions.put(cost, counters);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        RequestCost cost = RequestCost.of(request);
+        Map<Outcome, Counter> counters = decisions.get(cost);
+
+        if (rateLimitEnabled) {
+            String address = clientAddress(request);
+            long waitNanos = rateLimiter.tryAcquire(clientId(request, address), address, cost);
+            if (waitNanos > 0) {
+                counters.get(Outcome.LIMITED).increment();
+                reject(response, HttpStatus.TOO_MANY_REQUESTS, waitNanos, "Rate limit exceeded");
+                return;
+            }
+        }
+
+        if (!loadSheddingEnabled) {
+            counters.get(Outcome.ALLOWED).increment();
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        if (!loadShedder.tryAdmit(cost)) {
+            counters.get(Outcome.SHED).increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, shedRetryAfter.toNanos(), "Service is overloaded");
+            return;
+        }
+
+        counters.get(Outcome.ALLOWED).increment();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            loadShedder.release();
+        }
+    }
+
+    // Helper methods to identify the client and build rejection responses.
+
+    private String clientId(HttpServletRequest request, String address) {
+        String apiKey = request.getHeader(API_KEY_HEADER);
+        return apiKey != null && apiKeys.contains(apiKey) ? "key:" + apiKey : "address:" + address;
+    }
+
+    private String clientAddress(HttpServletRequest request) {
+        String address = request.getRemoteAddr();
+        String forwardedFor = request.getHeader(FORWARDED_FOR_HEADER);
+        if (forwardedFor == null || !trustedProxies.contains(address)) {
+            return address;
+        }
+        // Walk back from the nearest hop, entries before the first untrusted one can be forged by the client.
+        String[] hops = forwardedFor.split(",");
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].trim();
+            if (hop.isEmpty()) {
+                return address;
+            }
+            if (!trustedProxies.contains(hop)) {
+                return hop;
+            }
+            address = hop;
+        }
+        return address;
+    }
+
+    private static void reject(HttpServletResponse response, HttpStatus status, long retryAfterNanos, String message)
+            throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(retryAfterNanos + 999_999_999L));
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write(message);
+    }
+
+    private enum Outcome {
+        ALLOWED,
+        LIMITED,
+        SHED
+    }
+}
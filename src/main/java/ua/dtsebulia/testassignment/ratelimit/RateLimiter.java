@@ -0,0 +1,97 @@
+package ua.dtsebulia.testassignment.ratelimit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-client rate limiter with a separate token bucket budget for each {@link RequestCost}.
+ * <p>
+ * Buckets are created on first use and dropped once they refill completely. When more than the configured
+ * number of clients are tracked, new clients fall back to an overflow bucket chosen by their remote address, so
+ * one client flooding the overflow only shares its budget with the few newcomers hashed to the same bucket.
+ */
+@Component
+public class RateLimiter {
+
+    private static final String OVERFLOW_PREFIX = "overflow:";
+    private static final int OVERFLOW_BUCKETS = 1024;
+
+    private final Map<RequestCost, Map<String, TokenBucket>> buckets = new EnumMap<>(RequestCost.class);
+    private final Map<RequestCost, Budget> budgets = new EnumMap<>(RequestCost.class);
+    private final int maxClients;
+    private final LongSupplier nanoClock;
+
+    @Autowired
+    public RateLimiter(@Value("${rateLimit.cheap.permitsPerSecond}") double cheapPermitsPerSecond,
+                       @Value("${rateLimit.cheap.burst}") int cheapBurst,
+                       @Value("${rateLimit.expensive.permitsPerSecond}") double expensivePermitsPerSecond,
+                       @Value("${rateLimit.expensive.burst}") int expensiveBurst,
+                       @Value("${rateLimit.maxClients}") int maxClients) {
+        this(new Budget(cheapPermitsPerSecond, cheapBurst),
+                new Budget(expensivePermitsPerSecond, expensiveBurst),
+                maxClients, System::nanoTime);
+    }
+
+    RateLimiter(Budget cheap, Budget expensive, int maxClients, LongSupplier nanoClock) {
+        budgets.put(RequestCost.CHEAP, cheap);
+        budgets.put(RequestCost.EXPENSIVE, expensive);
+        for (RequestCost cost : RequestCost.values()) {
+            buckets.put(cost, new ConcurrentHashMap<>());
+        }
+        this.maxClients = maxClients;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Try to take a permit for a client.
+     *
+     * @param clientId      The client identifier, e.g. API key or remote address.
+     * @param remoteAddress The remote address of the client, picks the overflow bucket once too many clients are
+     *                      tracked.
+     * @param cost          The cost class of the request.
+     * @return 0 if the request is allowed, otherwise the number of nanoseconds until the client may retry.
+     */
+    public long tryAcquire(String clientId, String remoteAddress, RequestCost cost) {
+        long now = nanoClock.getAsLong();
+        Map<String, TokenBucket> clientBuckets = buckets.get(cost);
+
+        TokenBucket bucket = clientBuckets.get(clientId);
+        if (bucket == null) {
+            String key = clientBuckets.size() < maxClients
+                    ? clientId
+                    : OVERFLOW_PREFIX + Math.floorMod(remoteAddress.hashCode(), OVERFLOW_BUCKETS);
+            Budget budget = budgets.get(cost);
+            bucket = clientBuckets.computeIfAbsent(key, k -> new TokenBucket(budget.permitsPerSecond(), budget.burst(), now));
+        }
+        return bucket.tryAcquire(now);
+    }
+
+    /**
+     * Drop buckets of clients that have been idle long enough to refill completely.
+     */
+    @Scheduled(fixedDelayString = "${rateLimit.cleanupInterval}")
+    public void removeIdleBuckets() {
+        long now = nanoClock.getAsLong();
+        buckets.values().forEach(clientBuckets -> clientBuckets.values().removeIf(bucket -> bucket.isFull(now)));
+    }
+
+    int trackedClients(RequestCost cost) {
+        return buckets.get(cost).size();
+    }
+
+    /**
+     * Rate limit budget of one cost class.
+     *
+     * @param permitsPerSecond Sustained request rate per client.
+     * @param burst            Requests a client may send at once after being idle.
+     */
+    record Budget(double permitsPerSecond, int burst) {
+    }
+}
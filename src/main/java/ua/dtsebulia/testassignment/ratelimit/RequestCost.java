@@ -0,0 +1,37 @@
+package ua.dtsebulia.testassignment.ratelimit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpMethod;
+
+/**
+ * Cost class of a request, each class has its own rate limit budget.
+ */
+public enum RequestCost {
+
+    /**
+     * Single-row reads and writes, e.g. getting a user by ID.
+     */
+    CHEAP,
+
+    /**
+     * Requests that scan the user table, e.g. getting all users or a birthday range.
+     */
+    EXPENSIVE;
+
+    /**
+     * Classify a request.
+     *
+     * @param request The incoming request.
+     * @return The cost class of the request.
+     */
+    public static RequestCost of(HttpServletRequest request) {
+        if (!HttpMethod.GET.matches(request.getMethod())) {
+            return CHEAP;
+        }
+        String uri = request.getRequestURI();
+        if ("/api/users".equals(uri) || "/api/users/birthdays".equals(uri)) {
+            return EXPENSIVE;
+        }
+        return CHEAP;
+    }
+}
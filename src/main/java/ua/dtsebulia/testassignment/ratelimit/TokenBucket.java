@@ -0,0 +1,57 @@
+package ua.dtsebulia.testassignment.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket.
+ * <p>
+ * Implemented as a generic cell rate algorithm: the whole bucket state is the theoretical arrival time of the
+ * next permit, so acquiring a permit is a single compare-and-set.
+ */
+final class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrivalTime;
+
+    /**
+     * @param permitsPerSecond Sustained refill rate.
+     * @param burst            Number of permits available to a client that has been idle.
+     * @param now              Current time in nanoseconds.
+     */
+    TokenBucket(double permitsPerSecond, int burst, long now) {
+        this.emissionIntervalNanos = Math.max(1, (long) (1_000_000_000L / permitsPerSecond));
+        this.burstToleranceNanos = emissionIntervalNanos * burst;
+        this.theoreticalArrivalTime = new AtomicLong(now);
+    }
+
+    /**
+     * Try to take a permit.
+     *
+     * @param now Current time in nanoseconds.
+     * @return 0 if the permit was granted, otherwise the number of nanoseconds until one becomes available.
+     */
+    long tryAcquire(long now) {
+        while (true) {
+            long tat = theoreticalArrivalTime.get();
+            long newTat = Math.max(tat, now) + emissionIntervalNanos;
+            long waitNanos = newTat - now - burstToleranceNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (theoreticalArrivalTime.compareAndSet(tat, newTat)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * A full bucket behaves exactly like a new one, so it can be dropped without losing state.
+     *
+     * @param now Current time in nanoseconds.
+     * @return True if the bucket is full.
+     */
+    boolean isFull(long now) {
+        return theoreticalArrivalTime.get() - now <= 0;
+    }
+}
@@ -0,0 +1,19 @@
+package ua.dtsebulia.testassignment.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import ua.dtsebulia.testassignment.model.AgeBracket;
+import ua.dtsebulia.testassignment.model.CohortCount;
+import ua.dtsebulia.testassignment.model.CohortKey;
+
+import java.util.List;
+
+/**
+ * Repository interface for managing CohortCount entities.
+ * <p>
+ * addToCount is implemented in {@link CohortCountRepositoryImpl} so its native upsert only invalidates cached
+ * cohort counts.
+ */
+public interface CohortCountRepository extends JpaRepository<CohortCount, CohortKey>, CohortCountRepositoryCustom {
+
+    List<CohortCount> findByIdBracketOrderByIdBirthMonthAsc(AgeBracket bracket);
+}
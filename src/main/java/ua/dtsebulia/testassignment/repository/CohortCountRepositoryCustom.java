@@ -0,0 +1,16 @@
+package ua.dtsebulia.testassignment.repository;
+
+/**
+ * Cohort count updates that need the Hibernate session.
+ */
+public interface CohortCountRepositoryCustom {
+
+    /**
+     * Add to the count of a cohort, creating it if it doesn't exist yet.
+     *
+     * @param bracket    Name of the age bracket.
+     * @param birthMonth Birth month, 1 to 12.
+     * @param delta      Number of users to add, negative to remove.
+     */
+    void addToCount(String bracket, int birthMonth, long delta);
+}
@@ -0,0 +1,32 @@
+package ua.dtsebulia.testassignment.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.query.NativeQuery;
+import ua.dtsebulia.testassignment.model.CohortCount;
+
+/**
+ * Implementation of {@link CohortCountRepositoryCustom}.
+ * <p>
+ * The upsert is native SQL, so Hibernate can't tell which table it writes to. It is registered against
+ * {@link CohortCount}, otherwise every write would evict all second-level cache regions and cached query results.
+ */
+public class CohortCountRepositoryImpl implements CohortCountRepositoryCustom {
+
+    private static final String ADD_TO_COUNT = "INSERT INTO cohort_count (bracket, birth_month, user_count) " +
+            "VALUES (:bracket, :birthMonth, :delta) " +
+            "ON DUPLICATE KEY UPDATE user_count = user_count + :delta";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void addToCount(String bracket, int birthMonth, long delta) {
+        NativeQuery<?> query = entityManager.createNativeQuery(ADD_TO_COUNT).unwrap(NativeQuery.class);
+        query.addSynchronizedEntityClass(CohortCount.class);
+        query.setParameter("bracket", bracket);
+        query.setParameter("birthMonth", birthMonth);
+        query.setParameter("delta", delta);
+        query.executeUpdate();
+    }
+}
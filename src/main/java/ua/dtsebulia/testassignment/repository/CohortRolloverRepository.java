@@ -0,0 +1,31 @@
+package ua.dtsebulia.testassignment.repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ua.dtsebulia.testassignment.model.CohortRollover;
+
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Repository interface for managing the CohortRollover state.
+ * <p>
+ * The rollover holds the row exclusively while it advances ages. Cohort updates read the date without a lock, and
+ * only hold the row shared when the user's birthday is one a running rollover may be advancing.
+ */
+public interface CohortRolloverRepository extends JpaRepository<CohortRollover, Integer> {
+
+    @Query("SELECT r.lastRolloverDate FROM CohortRollover r WHERE r.id = :id")
+    Optional<LocalDate> findLastRolloverDate(@Param("id") Integer id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM CohortRollover r WHERE r.id = :id")
+    Optional<CohortRollover> findForRollover(@Param("id") Integer id);
+
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT r FROM CohortRollover r WHERE r.id = :id")
+    Optional<CohortRollover> findForUpdate(@Param("id") Integer id);
+}
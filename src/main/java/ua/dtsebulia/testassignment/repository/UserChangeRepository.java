@@ -0,0 +1,19 @@
+package ua.dtsebulia.testassignment.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import ua.dtsebulia.testassignment.model.UserChange;
+
+import java.util.List;
+
+/**
+ * Repository interface for managing UserChange entities.
+ */
+public interface UserChangeRepository extends JpaRepository<UserChange, Long> {
+
+    List<UserChange> findBySequenceNumberBetweenOrderBySequenceNumberAsc(
+            Long fromSequenceNumber,
+            Long toSequenceNumber,
+            Pageable pageable
+    );
+}
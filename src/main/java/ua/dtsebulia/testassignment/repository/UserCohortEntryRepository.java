@@ -0,0 +1,38 @@
+package ua.dtsebulia.testassignment.repository;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ua.dtsebulia.testassignment.model.UserCohortEntry;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository interface for managing UserCohortEntry entities.
+ */
+public interface UserCohortEntryRepository extends JpaRepository<UserCohortEntry, Integer> {
+
+    List<UserCohortEntry> findByBirthMonthAndBirthDay(int birthMonth, int birthDay);
+
+    List<UserCohortEntry> findByAgeAndBirthMonthAndBirthDay(int age, int birthMonth, int birthDay);
+
+    /**
+     * Read the birthday of a user's entry without loading the entry, so it can still be locked afterwards.
+     */
+    @Query("SELECT e.birthMonth AS birthMonth, e.birthDay AS birthDay FROM UserCohortEntry e WHERE e.userId = :userId")
+    Optional<Birthday> findBirthday(@Param("userId") Integer userId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT e FROM UserCohortEntry e WHERE e.userId = :userId")
+    Optional<UserCohortEntry> findForUpdate(@Param("userId") Integer userId);
+
+    interface Birthday {
+
+        int getBirthMonth();
+
+        int getBirthDay();
+    }
+}
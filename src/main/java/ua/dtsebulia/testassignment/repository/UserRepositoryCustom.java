@@ -0,0 +1,27 @@
+package ua.dtsebulia.testassignment.repository;
+
+import ua.dtsebulia.testassignment.model.User;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * User queries whose results can be kept in the Hibernate query cache.
+ */
+public interface UserRepositoryCustom {
+
+    Optional<User> findByEmail(String email);
+
+    List<User> findUsersByBirthdayRange(Date fromDate, Date toDate);
+
+    /**
+     * Like findAllById, but takes users from the second-level cache where possible and loads the rest with a
+     * single IN query, in a read-only transaction of its own.
+     *
+     * @param ids IDs of the users.
+     * @return The users that exist, detached, in no particular order.
+     */
+    List<User> multiLoadById(Collection<Integer> ids);
+}
@@ -0,0 +1,87 @@
+package ua.dtsebulia.testassignment.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.Session;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.transaction.annotation.Transactional;
+import ua.dtsebulia.testassignment.cache.CacheRegions;
+import ua.dtsebulia.testassignment.model.User;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Implementation of {@link UserRepositoryCustom}.
+ * <p>
+ * Each query caches its results in its own region, which can be turned off with cache.userByEmail.enabled and
+ * cache.birthdayRange.enabled. Hibernate invalidates cached results whenever the user table is written to, so
+ * saves and deletes are visible to the next query.
+ * <p>
+ * multiLoadById runs in its own read-only transaction, as it is called by the lookup coalescer on behalf of
+ * other requests, and returns detached users.
+ */
+public class UserRepositoryImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${cache.userByEmail.enabled}")
+    private boolean userByEmailCacheEnabled;
+
+    @Value("${cache.birthdayRange.enabled}")
+    private boolean birthdayRangeCacheEnabled;
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        TypedQuery<User> query = entityManager
+                .createQuery("SELECT u FROM User u WHERE u.email = :email", User.class)
+                .setParameter("email", email);
+        return cacheable(query, CacheRegions.USER_BY_EMAIL, userByEmailCacheEnabled)
+                .getResultList()
+                .stream()
+                .findFirst();
+    }
+
+    @Override
+    public List<User> findUsersByBirthdayRange(Date fromDate, Date toDate) {
+        TypedQuery<User> query = entityManager
+                .createQuery("SELECT u " +
+                        "FROM User u " +
+                        "WHERE u.dateOfBirth " +
+                        "BETWEEN :fromDate AND :toDate", User.class)
+                .setParameter("fromDate", fromDate)
+                .setParameter("toDate", toDate);
+        return cacheable(query, CacheRegions.USER_BIRTHDAY_RANGE, birthdayRangeCacheEnabled).getResultList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> multiLoadById(Collection<Integer> ids) {
+        Session session = entityManager.unwrap(Session.class);
+        List<User> users = session.byMultipleIds(User.class)
+                .withBatchSize(ids.size())
+                .multiLoad(List.copyOf(ids))
+                .stream()
+                .filter(Objects::nonNull)
+                .toList();
+        // The users are handed to other threads, so they must not stay managed by an open-in-view session.
+        users.forEach(session::detach);
+        return users;
+    }
+
+    // Helper method to put query results into a cache region.
+
+    private static <T> TypedQuery<T> cacheable(TypedQuery<T> query, String region, boolean enabled) {
+        if (enabled) {
+            query.setHint(HibernateHints.HINT_CACHEABLE, true);
+            query.setHint(HibernateHints.HINT_CACHE_REGION, region);
+        }
+        return query;
+    }
+}
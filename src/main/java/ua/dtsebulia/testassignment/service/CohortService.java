@@ -0,0 +1,330 @@
+package ua.dtsebulia.testassignment.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ua.dtsebulia.testassignment.model.AgeBracket;
+import ua.dtsebulia.testassignment.model.CohortCount;
+import ua.dtsebulia.testassignment.model.CohortKey;
+import ua.dtsebulia.testassignment.model.CohortRollover;
+import ua.dtsebulia.testassignment.model.User;
+import ua.dtsebulia.testassignment.model.UserCohortEntry;
+import ua.dtsebulia.testassignment.repository.CohortCountRepository;
+import ua.dtsebulia.testassignment.repository.CohortRolloverRepository;
+import ua.dtsebulia.testassignment.repository.UserCohortEntryRepository;
+import ua.dtsebulia.testassignment.repository.UserRepository;
+import ua.dtsebulia.testassignment.tenant.TenantFanOut;
+
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.MonthDay;
+import java.time.Period;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service class for maintaining and querying user cohorts by age bracket and birth month.
+ * <p>
+ * Every user has a cohort entry holding their current age, and every cohort has a running count. Both are updated
+ * in the transaction that creates, updates or deletes the user. Ages are current as of the last rollover date: the
+ * daily rollover only touches the users whose birthday it is, advancing their age and moving them to the next
+ * bracket if needed. Users born on February 29 have their birthday on March 1 in non-leap years.
+ * <p>
+ * On the first start, the cohort tables are built from all existing users. That build, and the catch-up on days
+ * missed while the application was down, run in the background after startup.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CohortService {
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+    private static final MonthDay LEAP_DAY = MonthDay.of(Month.FEBRUARY, 29);
+
+    private final UserCohortEntryRepository userCohortEntryRepository;
+    private final CohortCountRepository cohortCountRepository;
+    private final CohortRolloverRepository cohortRolloverRepository;
+    private final UserRepository userRepository;
+    private final TenantFanOut tenantFanOut;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskScheduler taskScheduler;
+
+    private Clock clock = Clock.systemDefaultZone();
+
+    @Value("${user.minimumAge}")
+    private int minimumAge;
+
+    /**
+     * Add a new user to their cohort as part of the current transaction.
+     *
+     * @param user The created user.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onUserCreated(User user) {
+        UserCohortEntry entry = newEntry(user, agesCurrentAsOf(List.of(birthdayOf(user))));
+        userCohortEntryRepository.save(entry);
+        addToCounts(Map.of(cohortOf(entry), 1L));
+    }
+
+    /**
+     * Move an updated user to their new cohort as part of the current transaction.
+     *
+     * @param user The user after the update.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onUserUpdated(User user) {
+        List<MonthDay> birthdays = new ArrayList<>(List.of(birthdayOf(user)));
+        userCohortEntryRepository.findBirthday(user.getId())
+                .ifPresent(previous -> birthdays.add(MonthDay.of(previous.getBirthMonth(), previous.getBirthDay())));
+        UserCohortEntry entry = newEntry(user, agesCurrentAsOf(birthdays));
+
+        // Locked after the rollover row, like the rollover does, so a rollover can't move the user in between.
+        Map<CohortKey, Long> deltas = new HashMap<>();
+        userCohortEntryRepository.findForUpdate(user.getId())
+                .ifPresent(previous -> deltas.merge(cohortOf(previous), -1L, Long::sum));
+        deltas.merge(cohortOf(entry), 1L, Long::sum);
+
+        userCohortEntryRepository.save(entry);
+        addToCounts(deltas);
+    }
+
+    /**
+     * Remove a deleted user from their cohort as part of the current transaction.
+     *
+     * @param user The deleted user.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onUserDeleted(User user) {
+        // Waits for a rollover advancing this user, so the count it moved the user to is the one decremented.
+        agesCurrentAsOf(List.of(birthdayOf(user)));
+        userCohortEntryRepository.findForUpdate(user.getId()).ifPresent(entry -> {
+            userCohortEntryRepository.delete(entry);
+            addToCounts(Map.of(cohortOf(entry), -1L));
+        });
+    }
+
+    /**
+     * Get the number of users in every cohort.
+     *
+     * @return Counts ordered by age bracket and birth month.
+     */
+    public List<CohortCount> getCohortCounts() {
+        List<CohortCount> counts = new ArrayList<>(cohortCountRepository.findAll());
+        counts.sort(Comparator.comparing((CohortCount count) -> count.getId().getBracket())
+                .thenComparingInt(count -> count.getId().getBirthMonth()));
+        return counts;
+    }
+
+    /**
+     * Get the number of users in the cohorts of an age bracket.
+     *
+     * @param bracket The age bracket.
+     * @return Counts per birth month.
+     */
+    public List<CohortCount> getCohortCounts(AgeBracket bracket) {
+        return cohortCountRepository.findByIdBracketOrderByIdBirthMonthAsc(bracket);
+    }
+
+    /**
+     * Get the users who reach the minimum age in the current week, Monday to Sunday.
+     *
+     * @return The users, ordered by birthday.
+     */
+    public List<User> getUsersTurningMinimumAgeThisWeek() {
+        LocalDate monday = LocalDate.now(clock).with(DayOfWeek.MONDAY);
+        LocalDate agesAsOf = cohortRolloverRepository.findById(CohortRollover.ID)
+                .map(CohortRollover::getLastRolloverDate)
+                .orElse(LocalDate.now(clock));
+
+        List<Integer> userIds = new ArrayList<>();
+        for (LocalDate day = monday; day.isBefore(monday.plusWeeks(1)); day = day.plusDays(1)) {
+            // Birthdays the rollover has already processed are at the minimum age, later ones are a year short.
+            int age = day.isAfter(agesAsOf) ? minimumAge - 1 : minimumAge;
+            for (MonthDay birthday : birthdaysCelebratedOn(day)) {
+                userCohortEntryRepository.findByAgeAndBirthMonthAndBirthDay(
+                                age, birthday.getMonthValue(), birthday.getDayOfMonth())
+                        .forEach(entry -> userIds.add(entry.getUserId()));
+            }
+        }
+
+        Map<Integer, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        return userIds.stream().map(users::get).filter(Objects::nonNull).toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rolloverOnStartup() {
+        // A first build or a catch-up over several days runs on the scheduler, not on the startup thread.
+        taskScheduler.execute(this::rollover);
+    }
+
+    @Scheduled(cron = "${cohort.rolloverCron}")
+    public void rollover() {
+        tenantFanOut.forEachTenant(() -> {
+            try {
+                rolloverCurrentTenant();
+            } catch (RuntimeException ex) {
+                log.error("Cohort rollover failed", ex);
+            }
+        });
+    }
+
+    // Helper methods for the rollover, the initial build and the count bookkeeping.
+
+    private void rolloverCurrentTenant() {
+        LocalDate today = LocalDate.now(clock);
+        LocalDate lastRollover = cohortRolloverRepository.findById(CohortRollover.ID)
+                .map(CohortRollover::getLastRolloverDate)
+                .orElse(null);
+        if (lastRollover == null) {
+            rebuild(today);
+            return;
+        }
+        for (LocalDate day = lastRollover.plusDays(1); !day.isAfter(today); day = day.plusDays(1)) {
+            LocalDate rolloverDay = day;
+            transactionTemplate.executeWithoutResult(status -> rolloverDay(rolloverDay));
+        }
+    }
+
+    /**
+     * Advance the age of the users whose birthday is on the day, in the caller's transaction.
+     */
+    void rolloverDay(LocalDate day) {
+        CohortRollover state = cohortRolloverRepository.findForRollover(CohortRollover.ID).orElseThrow();
+        if (!state.getLastRolloverDate().isBefore(day)) {
+            // Another instance got here first.
+            return;
+        }
+
+        Map<CohortKey, Long> deltas = new HashMap<>();
+        int advanced = 0;
+        for (MonthDay birthday : birthdaysCelebratedOn(day)) {
+            for (UserCohortEntry entry : userCohortEntryRepository.findByBirthMonthAndBirthDay(
+                    birthday.getMonthValue(), birthday.getDayOfMonth())) {
+                CohortKey previous = cohortOf(entry);
+                entry.setAge(entry.getAge() + 1);
+                entry.setBracket(AgeBracket.of(entry.getAge()));
+                if (entry.getBracket() != previous.getBracket()) {
+                    deltas.merge(previous, -1L, Long::sum);
+                    deltas.merge(cohortOf(entry), 1L, Long::sum);
+                }
+                advanced++;
+            }
+        }
+        addToCounts(deltas);
+        state.setLastRolloverDate(day);
+        log.info("Cohort rollover for {} advanced the age of {} users", day, advanced);
+    }
+
+    private void rebuild(LocalDate today) {
+        log.info("Building cohorts from existing users");
+        Integer lastId = 0;
+        while (lastId != null) {
+            Integer afterId = lastId;
+            lastId = transactionTemplate.execute(status -> {
+                List<User> users = userRepository.findByIdGreaterThanOrderByIdAsc(
+                        afterId, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                if (users.isEmpty()) {
+                    return null;
+                }
+                // Users created since startup already have an entry.
+                Map<Integer, UserCohortEntry> existing = userCohortEntryRepository
+                        .findAllById(users.stream().map(User::getId).toList()).stream()
+                        .collect(Collectors.toMap(UserCohortEntry::getUserId, Function.identity()));
+                Map<CohortKey, Long> deltas = new HashMap<>();
+                for (User user : users) {
+                    if (user.getDateOfBirth() != null && !existing.containsKey(user.getId())) {
+                        UserCohortEntry entry = newEntry(user, today);
+                        userCohortEntryRepository.save(entry);
+                        deltas.merge(cohortOf(entry), 1L, Long::sum);
+                    }
+                }
+                addToCounts(deltas);
+                return users.get(users.size() - 1).getId();
+            });
+        }
+        transactionTemplate.executeWithoutResult(status ->
+                cohortRolloverRepository.save(new CohortRollover(CohortRollover.ID, today)));
+        log.info("Built cohorts as of {}", today);
+    }
+
+    private LocalDate agesCurrentAsOf(List<MonthDay> birthdays) {
+        LocalDate today = LocalDate.now(clock);
+        LocalDate agesAsOf = cohortRolloverRepository.findLastRolloverDate(CohortRollover.ID).orElse(today);
+        for (LocalDate day = agesAsOf.plusDays(1); !day.isAfter(today); day = day.plusDays(1)) {
+            if (birthdaysCelebratedOn(day).stream().anyMatch(birthdays::contains)) {
+                // A rollover may be advancing this user right now, wait for it to commit and use its date.
+                return cohortRolloverRepository.findForUpdate(CohortRollover.ID)
+                        .map(CohortRollover::getLastRolloverDate)
+                        .orElse(today);
+            }
+        }
+        return agesAsOf;
+    }
+
+    private void addToCounts(Map<CohortKey, Long> deltas) {
+        deltas.forEach((cohort, delta) -> {
+            if (delta != 0) {
+                cohortCountRepository.addToCount(cohort.getBracket().name(), cohort.getBirthMonth(), delta);
+            }
+        });
+    }
+
+    private static UserCohortEntry newEntry(User user, LocalDate agesAsOf) {
+        LocalDate dateOfBirth = toLocalDate(user.getDateOfBirth());
+        int age = ageOn(dateOfBirth, agesAsOf);
+        return new UserCohortEntry(user.getId(), dateOfBirth.getMonthValue(), dateOfBirth.getDayOfMonth(),
+                age, AgeBracket.of(age));
+    }
+
+    private static MonthDay birthdayOf(User user) {
+        return MonthDay.from(toLocalDate(user.getDateOfBirth()));
+    }
+
+    private static LocalDate toLocalDate(Date date) {
+        // java.sql.Date does not support toInstant(), go through the epoch millis instead.
+        return Instant.ofEpochMilli(date.getTime()).atZone(ZoneId.systemDefault()).toLocalDate();
+    }
+
+    private static CohortKey cohortOf(UserCohortEntry entry) {
+        return new CohortKey(entry.getBracket(), entry.getBirthMonth());
+    }
+
+    /**
+     * @return Full years between the date of birth and the day, February 29 birthdays count on March 1.
+     */
+    static int ageOn(LocalDate dateOfBirth, LocalDate day) {
+        return Math.max(0, Period.between(dateOfBirth, day).getYears());
+    }
+
+    /**
+     * @return Birthdays celebrated on the day, including February 29 on March 1 of non-leap years.
+     */
+    static List<MonthDay> birthdaysCelebratedOn(LocalDate day) {
+        MonthDay monthDay = MonthDay.from(day);
+        if (monthDay.equals(MonthDay.of(Month.MARCH, 1)) && !day.isLeapYear()) {
+            return List.of(LEAP_DAY, monthDay);
+        }
+        return List.of(monthDay);
+    }
+}
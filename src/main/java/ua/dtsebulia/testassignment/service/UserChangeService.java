@@ -0,0 +1,350 @@
+package ua.dtsebulia.testassignment.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ua.dtsebulia.testassignment.model.User;
+import ua.dtsebulia.testassignment.model.UserChange;
+import ua.dtsebulia.testassignment.model.UserChangeType;
+import ua.dtsebulia.testassignment.repository.UserChangeRepository;
+import ua.dtsebulia.testassignment.tenant.TenantContext;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Service class for recording user mutations and serving them as a change feed.
+ * <p>
+ * Changes are appended in the same transaction as the mutation. Consumers waiting on a long poll or subscribed to
+ * a stream are notified after the transaction commits. Sequence numbers are handed out on insert, so a later
+ * change can commit before an earlier one, on this instance or on any other. The feed therefore stops at the first
+ * gap in the sequence until the change after the gap is older than the commit grace period; only then is the gap
+ * taken to be a rolled back transaction and skipped. Consumers never skip over an entry that is about to appear as
+ * long as no user transaction stays open longer than the grace period and instance clocks agree to within it.
+ * Each tenant has its own change log, so sequence numbers and consumers are tracked per tenant.
+ * <p>
+ * Stream events are written on sender threads rather than the dispatcher thread, so a slow client only holds up its
+ * own stream. A stream that hasn't taken its last batch within the send timeout is closed, and the client resumes
+ * from Last-Event-ID when it reconnects.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserChangeService {
+
+    private final UserChangeRepository userChangeRepository;
+    private final ObjectMapper objectMapper;
+
+    private final Set<ChangeConsumer> consumers = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean dispatchScheduled = new AtomicBoolean();
+    private final AtomicBoolean gapRecheckScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "user-change-dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService sender = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "user-change-sender");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${changeFeed.maxBatchSize}")
+    private int maxBatchSize;
+
+    @Value("${changeFeed.streamTimeout}")
+    private Duration streamTimeout;
+
+    @Value("${changeFeed.commitGracePeriod}")
+    private Duration commitGracePeriod;
+
+    @Value("${changeFeed.sendTimeout}")
+    private Duration sendTimeout;
+
+    /**
+     * Append a change to the log as part of the current transaction.
+     * <p>
+     * The change is stamped with the current time, and consumers skip gaps older than the commit grace period. Call
+     * this as the last step of the transaction, after anything that may wait for a lock.
+     *
+     * @param type The kind of mutation.
+     * @param user The user after the change, or the deleted user.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(UserChangeType type, User user) {
+        String payload = type == UserChangeType.DELETED ? null : toJson(user);
+        userChangeRepository.save(new UserChange(null, user.getId(), type, new Date(), payload));
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    scheduleDispatch();
+                }
+            }
+        });
+    }
+
+    /**
+     * Get committed changes after a sequence number.
+     *
+     * @param since The last sequence number the consumer has seen.
+     * @return Up to the configured batch size of changes, ordered by sequence number and ending before the first
+     * gap that may still be filled by an open transaction.
+     */
+    public List<UserChange> getChangesSince(long since) {
+        return readBatch(since).changes();
+    }
+
+    /**
+     * Wait for changes after a sequence number.
+     *
+     * @param since   The last sequence number the consumer has seen.
+     * @param timeout How long to wait for a change before answering with an empty list.
+     * @return Result completed as soon as there are changes, or with an empty list on timeout.
+     */
+    public DeferredResult<List<UserChange>> pollChanges(long since, Duration timeout) {
+        DeferredResult<List<UserChange>> result = new DeferredResult<>(timeout.toMillis(), List.of());
+
+        List<UserChange> changes = getChangesSince(since);
+        if (!changes.isEmpty()) {
+            result.setResult(changes);
+            return result;
+        }
+
+        ChangeConsumer consumer = new LongPollConsumer(currentTenant(), since, result);
+        result.onCompletion(() -> consumers.remove(consumer));
+        consumers.add(consumer);
+        // A change may have committed between the query above and registering, check once more.
+        scheduleDispatch();
+        return result;
+    }
+
+    /**
+     * Stream changes after a sequence number as Server-Sent Events.
+     *
+     * @param since The last sequence number the consumer has seen.
+     * @return Emitter sending one event per change, with the sequence number as event ID.
+     */
+    public SseEmitter streamChanges(long since) {
+        return streamChanges(since, new SseEmitter(streamTimeout.toMillis()));
+    }
+
+    SseEmitter streamChanges(long since, SseEmitter emitter) {
+        ChangeConsumer consumer = new StreamConsumer(currentTenant(), since, emitter);
+        emitter.onCompletion(() -> consumers.remove(consumer));
+        emitter.onTimeout(() -> consumers.remove(consumer));
+        emitter.onError(ex -> consumers.remove(consumer));
+        consumers.add(consumer);
+        scheduleDispatch();
+        return emitter;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        sender.shutdownNow();
+    }
+
+    // Helper methods to fan committed changes out to waiting consumers on the dispatcher thread.
+
+    private void scheduleDispatch() {
+        if (dispatchScheduled.compareAndSet(false, true)) {
+            dispatcher.execute(() -> {
+                dispatchScheduled.set(false);
+                dispatch();
+            });
+        }
+    }
+
+    private void dispatch() {
+        Map<String, Batch> batchesByPosition = new HashMap<>();
+        boolean heldAtGap = false;
+        for (ChangeConsumer consumer : consumers) {
+            try {
+                Batch batch = batchesByPosition.computeIfAbsent(
+                        consumer.tenantId() + "@" + consumer.position(),
+                        key -> readBatch(consumer.tenantId(), consumer.position()));
+                heldAtGap |= batch.heldAtGap();
+                List<UserChange> changes = batch.changes();
+                if (changes.isEmpty()) {
+                    continue;
+                }
+                if (consumer.deliver(changes)) {
+                    consumers.remove(consumer);
+                }
+            } catch (RuntimeException ex) {
+                log.error("Failed to deliver user changes", ex);
+            }
+        }
+        if (heldAtGap && gapRecheckScheduled.compareAndSet(false, true)) {
+            // Expiring gaps don't trigger a dispatch, look again once the grace period is over.
+            dispatcher.schedule(() -> {
+                gapRecheckScheduled.set(false);
+                scheduleDispatch();
+            }, commitGracePeriod.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * @return The leading changes that follow each other without a gap, or whose gap is older than the cutoff.
+     */
+    static List<UserChange> upToFirstOpenGap(long since, List<UserChange> changes, long cutoffMillis) {
+        long expected = since + 1;
+        for (int i = 0; i < changes.size(); i++) {
+            UserChange change = changes.get(i);
+            if (change.getSequenceNumber() != expected && change.getChangedAt().getTime() > cutoffMillis) {
+                return changes.subList(0, i);
+            }
+            expected = change.getSequenceNumber() + 1;
+        }
+        return changes;
+    }
+
+    private Batch readBatch(String tenantId, long since) {
+        TenantContext.setTenantId(tenantId.isEmpty() ? null : tenantId);
+        try {
+            return readBatch(since);
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
+    private Batch readBatch(long since) {
+        List<UserChange> changes = userChangeRepository.findBySequenceNumberBetweenOrderBySequenceNumberAsc(
+                since + 1, Long.MAX_VALUE, PageRequest.of(0, maxBatchSize));
+        List<UserChange> committed = upToFirstOpenGap(
+                since, changes, System.currentTimeMillis() - commitGracePeriod.toMillis());
+        return new Batch(committed, committed.size() < changes.size());
+    }
+
+    private static String currentTenant() {
+        return Objects.toString(TenantContext.getTenantId(), "");
+    }
+
+    private String toJson(User user) {
+        try {
+            return objectMapper.writeValueAsString(user);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize user with id: " + user.getId(), e);
+        }
+    }
+
+    /**
+     * @param changes   Changes a consumer can be given.
+     * @param heldAtGap Whether later changes were held back by a gap that may still be filled.
+     */
+    private record Batch(List<UserChange> changes, boolean heldAtGap) {
+    }
+
+    private interface ChangeConsumer {
+
+        String tenantId();
+
+        long position();
+
+        /**
+         * Hand changes to the consumer. Consumers still busy with earlier changes may ignore them, and will be
+         * given them again later.
+         *
+         * @return True if the consumer is done and should be removed.
+         */
+        boolean deliver(List<UserChange> changes);
+    }
+
+    private record LongPollConsumer(String tenantId, long position, DeferredResult<List<UserChange>> result)
+            implements ChangeConsumer {
+
+        @Override
+        public boolean deliver(List<UserChange> changes) {
+            result.setResult(changes);
+            return true;
+        }
+    }
+
+    private final class StreamConsumer implements ChangeConsumer {
+
+        private final String tenantId;
+        private final SseEmitter emitter;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile long position;
+        private volatile long sendStartedAt;
+
+        private StreamConsumer(String tenantId, long position, SseEmitter emitter) {
+            this.tenantId = tenantId;
+            this.position = position;
+            this.emitter = emitter;
+        }
+
+        @Override
+        public String tenantId() {
+            return tenantId;
+        }
+
+        @Override
+        public long position() {
+            return position;
+        }
+
+        @Override
+        public boolean deliver(List<UserChange> changes) {
+            if (sending.get()) {
+                if (System.nanoTime() - sendStartedAt < sendTimeout.toNanos()) {
+                    return false;
+                }
+                log.warn("Closing a change stream that did not take its events within {}", sendTimeout);
+                // Completing waits for the pending send to give up, so it is left to a sender thread as well.
+                sender.execute(emitter::complete);
+                return true;
+            }
+            sendStartedAt = System.nanoTime();
+            sending.set(true);
+            sender.execute(() -> send(changes));
+            return false;
+        }
+
+        private void send(List<UserChange> changes) {
+            try {
+                for (UserChange change : changes) {
+                    emitter.send(SseEmitter.event()
+                            .id(String.valueOf(change.getSequenceNumber()))
+                            .name(change.getType().name())
+                            .data(change, MediaType.APPLICATION_JSON));
+                    position = change.getSequenceNumber();
+                }
+            } catch (IOException | IllegalStateException ex) {
+                consumers.remove(this);
+                emitter.completeWithError(ex);
+                return;
+            } finally {
+                sending.set(false);
+            }
+            // More changes may have been committed during the send, or the batch was cut at the batch size.
+            scheduleDispatch();
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package ua.dtsebulia.testassignment.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ua.dtsebulia.testassignment.model.User;
+import ua.dtsebulia.testassignment.repository.UserRepository;
+import ua.dtsebulia.testassignment.tenant.TenantContext;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Merges concurrent lookups of users by ID into batches loaded with a single query.
+ * <p>
+ * The first lookup of a tenant opens a batch and waits for up to the configured window while other lookups join
+ * it; the batch is closed early once it holds the maximum number of IDs. The opening thread then loads the whole
+ * batch and hands every caller its result. Every lookup pays up to one window of added latency, recorded in the
+ * userlookup.coalescing.added.latency timer, in exchange for fewer queries. Batch sizes are recorded in the
+ * userlookup.coalescing.batch.size summary.
+ */
+@Component
+public class UserLookupCoalescer {
+
+    private final UserRepository userRepository;
+    private final boolean enabled;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final DistributionSummary batchSizes;
+    private final Timer addedLatency;
+    private final Map<String, Batch> openBatches = new HashMap<>();
+
+    public UserLookupCoalescer(UserRepository userRepository, MeterRegistry meterRegistry,
+                               @Value("${lookupCoalescing.enabled}") boolean enabled,
+                               @Value("${lookupCoalescing.window}") Duration window,
+                               @Value("${lookupCoalescing.maxBatchSize}") int maxBatchSize) {
+        this.userRepository = userRepository;
+        this.enabled = enabled;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.batchSizes = DistributionSummary.builder("userlookup.coalescing.batch.size")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.addedLatency = Timer.builder("userlookup.coalescing.added.latency")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return True if lookups by ID should go through the coalescer.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Look up a user as part of a batch.
+     *
+     * @param id The ID of the user.
+     * @return The user, or empty if there is no user with that ID.
+     */
+    public Optional<User> findById(Integer id) {
+        long joinedNanos = System.nanoTime();
+        String tenantId = Objects.toString(TenantContext.getTenantId(), "");
+
+        Batch batch;
+        boolean opened = false;
+        CompletableFuture<Optional<User>> result;
+        synchronized (openBatches) {
+            batch = openBatches.get(tenantId);
+            if (batch == null) {
+                batch = new Batch();
+                openBatches.put(tenantId, batch);
+                opened = true;
+            }
+            result = batch.results.computeIfAbsent(id, key -> new CompletableFuture<>());
+            if (batch.results.size() >= maxBatchSize) {
+                openBatches.remove(tenantId);
+                batch.full.countDown();
+            }
+        }
+
+        if (opened) {
+            awaitWindow(batch);
+            synchronized (openBatches) {
+                openBatches.remove(tenantId, batch);
+            }
+            load(batch);
+        }
+
+        try {
+            return result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        } finally {
+            addedLatency.record(batch.loadStartedNanos - joinedNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    // Helper methods run by the thread that opened a batch.
+
+    private void awaitWindow(Batch batch) {
+        try {
+            batch.full.await(windowNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void load(Batch batch) {
+        // The batch is closed, so no other thread touches its results any more.
+        batch.loadStartedNanos = System.nanoTime();
+        batchSizes.record(batch.results.size());
+        try {
+            Map<Integer, User> users = userRepository.multiLoadById(batch.results.keySet()).stream()
+                    .collect(Collectors.toMap(User::getId, Function.identity()));
+            batch.results.forEach((id, result) -> result.complete(Optional.ofNullable(users.get(id))));
+        } catch (RuntimeException | Error ex) {
+            batch.results.values().forEach(result -> result.completeExceptionally(ex));
+        }
+    }
+
+    private static final class Batch {
+
+        private final Map<Integer, CompletableFuture<Optional<User>>> results = new LinkedHashMap<>();
+        private final CountDownLatch full = new CountDownLatch(1);
+        private volatile long loadStartedNanos;
+    }
+}
@@ -4,15 +4,25 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ua.dtsebulia.testassignment.exception.*;
+import ua.dtsebulia.testassignment.model.TenantUser;
 import ua.dtsebulia.testassignment.model.User;
+import ua.dtsebulia.testassignment.model.UserChangeType;
 import ua.dtsebulia.testassignment.repository.UserRepository;
+import ua.dtsebulia.testassignment.tenant.TenantContext;
+import ua.dtsebulia.testassignment.tenant.TenantFanOut;
+import ua.dtsebulia.testassignment.tracing.Span;
+import ua.dtsebulia.testassignment.tracing.Tracing;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 /**
  * Service class for managing user-related operations.
@@ -22,19 +32,42 @@ import java.util.List;
 public class UserService {
 
     private final UserRepository userRepository;
+    private final UserChangeService userChangeService;
+    private final CohortService cohortService;
+    private final TenantFanOut tenantFanOut;
+    private final UserLookupCoalescer userLookupCoalescer;
 
     @Value("${user.minimumAge}")
     private int minimumAge;
 
+    /**
+     * @return True if the current request reads the users of all tenants, see {@link #getAllUsersOfAllTenants()}.
+     */
+    public boolean isFanOutRequest() {
+        return tenantFanOut.isFanOutRequest();
+    }
+
     /**
      * Get a list of all users.
      *
-     * @return List of all users.
+     * @return List of all users of the current tenant.
      */
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
 
+    /**
+     * Get a list of the users of all tenants.
+     *
+     * @return List of all users with their tenant, ordered by tenant and ID.
+     */
+    public List<TenantUser> getAllUsersOfAllTenants() {
+        return tenantFanOut.query(
+                withTenant(userRepository::findAll),
+                Comparator.comparing(TenantUser::getTenantId).thenComparing(tenantUser -> tenantUser.getUser().getId())
+        );
+    }
+
     /**
      * Get a user by their ID.
      *
@@ -43,7 +76,10 @@ public class UserService {
      * @throws UserNotFoundException If no user with the specified ID exists.
      */
     public User getUserById(Integer id) {
-        return userRepository.findById(id).orElseThrow(
+        Optional<User> user = userLookupCoalescer.isEnabled()
+                ? userLookupCoalescer.findById(id)
+                : userRepository.findById(id);
+        return user.orElseThrow(
                 () -> new UserNotFoundException("User not found with id: " + id)
         );
     }
@@ -57,12 +93,13 @@ public class UserService {
      * @throws MinimumAgeException       If the user is not above the minimum age.
      * @throws UserAlreadyExistsException If a user with the same email already exists.
      */
+    @Transactional
     public User createUser(User user) {
 
         SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
         dateFormat.setLenient(false);
 
-        try {
+        try (Span span = Tracing.startSpan("UserService.normalizeDateOfBirth")) {
             String format = dateFormat.format(user.getDateOfBirth());
             user.setDateOfBirth(dateFormat.parse(format));
         } catch (HttpMessageNotReadableException | ParseException e) {
@@ -79,7 +116,11 @@ public class UserService {
             throw new UserAlreadyExistsException("User with email " + email + " already exists");
         }
 
-        return userRepository.save(user);
+        User createdUser = userRepository.save(user);
+        cohortService.onUserCreated(createdUser);
+        // Recorded last, so the change is stamped as close to the commit as possible.
+        userChangeService.record(UserChangeType.CREATED, createdUser);
+        return createdUser;
     }
 
     // Helper method to check if the user is above the minimum age.
@@ -107,13 +148,16 @@ public class UserService {
      * @param id The ID of the user to be deleted.
      * @throws UserNotFoundException If the user is not found.
      */
+    @Transactional
     public void deleteUser(Integer id) {
 
-        userRepository.findById(id).orElseThrow(
+        User existingUser = userRepository.findById(id).orElseThrow(
                 () -> new UserNotFoundException("User not found with id: " + id)
         );
 
         userRepository.deleteById(id);
+        cohortService.onUserDeleted(existingUser);
+        userChangeService.record(UserChangeType.DELETED, existingUser);
     }
 
     /**
@@ -126,6 +170,7 @@ public class UserService {
      * @throws MinimumAgeException     If the user is not above the minimum age.
      * @throws UserAlreadyExistsException If a user with the same email already exists.
      */
+    @Transactional
     public User updateUser(Integer id, User user) {
 
         User existingUser = userRepository.findById(id).orElseThrow(
@@ -141,7 +186,10 @@ public class UserService {
             throw new UserAlreadyExistsException("User with email " + email + " already exists");
         }
         updateUserWithNullChecks(user, existingUser);
-        return userRepository.save(existingUser);
+        User updatedUser = userRepository.save(existingUser);
+        cohortService.onUserUpdated(updatedUser);
+        userChangeService.record(UserChangeType.UPDATED, updatedUser);
+        return updatedUser;
     }
 
     // Helper method to update user fields with null checks.
@@ -166,11 +214,37 @@ public class UserService {
      *
      * @param from Start date of the range.
      * @param to   End date of the range.
-     * @return List of users within the date range.
+     * @return List of users of the current tenant within the date range.
      * @throws InvalidDateFormatException If the date format is invalid.
      * @throws InvalidDateRangeException  If the date range is invalid.
      */
     public List<User> getUserByBirthdayRange(String from, String to) {
+        BirthdayRange range = parseBirthdayRange(from, to);
+        return userRepository.findUsersByBirthdayRange(range.from(), range.to());
+    }
+
+    /**
+     * Get users of all tenants with birthdays within a specified date range.
+     *
+     * @param from Start date of the range.
+     * @param to   End date of the range.
+     * @return List of users within the date range with their tenant, ordered by date of birth, tenant and ID.
+     * @throws InvalidDateFormatException If the date format is invalid.
+     * @throws InvalidDateRangeException  If the date range is invalid.
+     */
+    public List<TenantUser> getUserByBirthdayRangeOfAllTenants(String from, String to) {
+        BirthdayRange range = parseBirthdayRange(from, to);
+        return tenantFanOut.query(
+                withTenant(() -> userRepository.findUsersByBirthdayRange(range.from(), range.to())),
+                Comparator.comparing((TenantUser tenantUser) -> tenantUser.getUser().getDateOfBirth())
+                        .thenComparing(TenantUser::getTenantId)
+                        .thenComparing(tenantUser -> tenantUser.getUser().getId())
+        );
+    }
+
+    // Helper methods to parse birthday ranges and to tag users read from all tenants.
+
+    private static BirthdayRange parseBirthdayRange(String from, String to) {
 
         SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
         dateFormat.setLenient(false);
@@ -188,7 +262,16 @@ public class UserService {
         if (fromDate.after(toDate)) {
             throw new InvalidDateRangeException("'from' date must be before 'to' date");
         }
+        return new BirthdayRange(fromDate, toDate);
+    }
+
+    private static Supplier<List<TenantUser>> withTenant(Supplier<List<User>> query) {
+        return () -> {
+            String tenantId = TenantContext.getTenantId();
+            return query.get().stream().map(user -> new TenantUser(tenantId, user)).toList();
+        };
+    }
 
-        return userRepository.findUsersByBirthdayRange(fromDate, toDate);
+    private record BirthdayRange(Date from, Date to) {
     }
 }
@@ -0,0 +1,67 @@
+package ua.dtsebulia.testassignment.tenant;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import javax.sql.DataSource;
+
+/**
+ * Configuration of tenant-partitioned user storage.
+ * <p>
+ * With tenancy.enabled set, every tenant has its own schema on one of the configured shards, and Hibernate picks
+ * the connection for each session from the request's tenant. Flyway migrates the schema of every tenant on startup.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(TenancyProperties.class)
+public class TenancyConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "tenancy", name = "enabled", havingValue = "true")
+    public TenantRouter tenantRouter(TenancyProperties tenancyProperties, MeterRegistry meterRegistry) {
+        return new TenantRouter(tenancyProperties, meterRegistry);
+    }
+
+    /**
+     * The default tenant's shard, used by everything that is not tenant-aware.
+     */
+    @Bean
+    @Primary
+    @ConditionalOnProperty(prefix = "tenancy", name = "enabled", havingValue = "true")
+    public DataSource dataSource(TenantRouter tenantRouter) {
+        return tenantRouter.dataSourceFor(tenantRouter.getDefaultTenant());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "tenancy", name = "enabled", havingValue = "true")
+    public HibernatePropertiesCustomizer multiTenancyCustomizer(TenantRouter tenantRouter) {
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.MULTI_TENANT_CONNECTION_PROVIDER,
+                    new TenantConnectionProvider(tenantRouter));
+            hibernateProperties.put(AvailableSettings.MULTI_TENANT_IDENTIFIER_RESOLVER,
+                    new TenantIdentifierResolver(tenantRouter));
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "tenancy", name = "enabled", havingValue = "true")
+    public FlywayMigrationStrategy tenantSchemaMigrationStrategy(TenantRouter tenantRouter) {
+        return flyway -> {
+            for (String tenantId : tenantRouter.getTenants()) {
+                Flyway.configure()
+                        .configuration(flyway.getConfiguration())
+                        .dataSource(tenantRouter.dataSourceFor(tenantId))
+                        .schemas(tenantRouter.schemaFor(tenantId))
+                        .load()
+                        .migrate();
+            }
+        };
+    }
+}
@@ -0,0 +1,50 @@
+package ua.dtsebulia.testassignment.tenant;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Configuration of tenant-partitioned user storage.
+ */
+@ConfigurationProperties(prefix = "tenancy")
+@Data
+public class TenancyProperties {
+
+    private boolean enabled;
+
+    /**
+     * Tenant of requests that do not send the tenant header.
+     */
+    private String defaultTenant;
+
+    /**
+     * Schema of each tenant, keyed by tenant ID.
+     */
+    private Map<String, String> tenants = new LinkedHashMap<>();
+
+    /**
+     * Database shards, keyed by shard name. Tenants are spread over them by consistent hashing.
+     */
+    private Map<String, Shard> shards = new LinkedHashMap<>();
+
+    /**
+     * Points per shard on the consistent hash ring.
+     */
+    private int virtualNodes = 128;
+
+    /**
+     * Maximum number of tenants queried at the same time when a read fans out across tenants.
+     */
+    private int fanOutParallelism = 8;
+
+    @Data
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,65 @@
+package ua.dtsebulia.testassignment.tenant;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.jdbc.connections.spi.MultiTenantConnectionProvider;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Hands Hibernate connections to the shard of the session's tenant, switched to the tenant's schema.
+ * <p>
+ * The pool resets the schema when the connection is returned. MySQL shards need databaseTerm=SCHEMA in their URL
+ * for the schema switch to select the tenant's database.
+ */
+@RequiredArgsConstructor
+public class TenantConnectionProvider implements MultiTenantConnectionProvider {
+
+    private final TenantRouter tenantRouter;
+
+    @Override
+    public Connection getAnyConnection() throws SQLException {
+        return getConnection(tenantRouter.getDefaultTenant());
+    }
+
+    @Override
+    public void releaseAnyConnection(Connection connection) throws SQLException {
+        connection.close();
+    }
+
+    @Override
+    public Connection getConnection(String tenantIdentifier) throws SQLException {
+        Connection connection = tenantRouter.dataSourceFor(tenantIdentifier).getConnection();
+        try {
+            connection.setSchema(tenantRouter.schemaFor(tenantIdentifier));
+        } catch (SQLException ex) {
+            connection.close();
+            throw ex;
+        }
+        return connection;
+    }
+
+    @Override
+    public void releaseConnection(String tenantIdentifier, Connection connection) throws SQLException {
+        connection.close();
+    }
+
+    @Override
+    public boolean supportsAggressiveRelease() {
+        return false;
+    }
+
+    @Override
+    public boolean isUnwrappableAs(Class<?> unwrapType) {
+        return unwrapType.isInstance(this);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> unwrapType) {
+        if (unwrapType.isInstance(this)) {
+            return (T) this;
+        }
+        throw new IllegalArgumentException("Cannot unwrap to " + unwrapType);
+    }
+}
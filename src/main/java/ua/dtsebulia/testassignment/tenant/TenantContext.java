@@ -0,0 +1,32 @@
+package ua.dtsebulia.testassignment.tenant;
+
+/**
+ * Holds the tenant of the request being processed by the current thread.
+ */
+public final class TenantContext {
+
+    /**
+     * Tenant ID addressing all tenants at once, only accepted by read endpoints that fan out across tenants.
+     */
+    public static final String ALL_TENANTS = "*";
+
+    private static final ThreadLocal<String> CURRENT_TENANT = new ThreadLocal<>();
+
+    private TenantContext() {
+    }
+
+    /**
+     * @return The tenant ID of the current thread, or null if none was set.
+     */
+    public static String getTenantId() {
+        return CURRENT_TENANT.get();
+    }
+
+    public static void setTenantId(String tenantId) {
+        CURRENT_TENANT.set(tenantId);
+    }
+
+    public static void clear() {
+        CURRENT_TENANT.remove();
+    }
+}
@@ -0,0 +1,103 @@
+package ua.dtsebulia.testassignment.tenant;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+import ua.dtsebulia.testassignment.tracing.Tracing;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs a read for every tenant in parallel and merges the results, or a background task for every tenant.
+ */
+@Component
+public class TenantFanOut {
+
+    private final TenancyProperties tenancyProperties;
+    private final ExecutorService executor;
+
+    public TenantFanOut(TenancyProperties tenancyProperties) {
+        this.tenancyProperties = tenancyProperties;
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, tenancyProperties.getFanOutParallelism()), runnable -> {
+            Thread thread = new Thread(runnable, "tenant-fan-out-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return True if the current request addresses all tenants.
+     */
+    public boolean isFanOutRequest() {
+        return tenancyProperties.isEnabled() && TenantContext.ALL_TENANTS.equals(TenantContext.getTenantId());
+    }
+
+    /**
+     * Run a query once per tenant and merge the results.
+     * <p>
+     * The statements of every tenant's query are counted against the trace of the calling request.
+     *
+     * @param query Query to run, it sees the tenant in the {@link TenantContext}.
+     * @param order Order of the merged results.
+     * @return The results of all tenants in the given order.
+     */
+    public <T> List<T> query(Supplier<List<T>> query, Comparator<? super T> order) {
+        Supplier<List<T>> tracedQuery = Tracing.propagate(query);
+        List<CompletableFuture<List<T>>> perTenant = new ArrayList<>();
+        for (String tenantId : tenancyProperties.getTenants().keySet()) {
+            perTenant.add(CompletableFuture.supplyAsync(() -> {
+                TenantContext.setTenantId(tenantId);
+                try {
+                    return tracedQuery.get();
+                } finally {
+                    TenantContext.clear();
+                }
+            }, executor));
+        }
+
+        List<T> merged = new ArrayList<>();
+        try {
+            perTenant.forEach(future -> merged.addAll(future.join()));
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+        merged.sort(order);
+        return merged;
+    }
+
+    /**
+     * Run a task once per tenant on the calling thread, or once if tenancy is disabled.
+     *
+     * @param task Task to run, it sees the tenant in the {@link TenantContext}.
+     */
+    public void forEachTenant(Runnable task) {
+        if (!tenancyProperties.isEnabled()) {
+            task.run();
+            return;
+        }
+        for (String tenantId : tenancyProperties.getTenants().keySet()) {
+            TenantContext.setTenantId(tenantId);
+            try {
+                task.run();
+            } finally {
+                TenantContext.clear();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,77 @@
+package ua.dtsebulia.testassignment.tenant;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Filter that resolves the tenant of a request from the X-Tenant-Id header.
+ * <p>
+ * Requests without the header belong to the default tenant. The {@link TenantContext#ALL_TENANTS} value is only
+ * accepted by the reads that fan out across tenants.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 5)
+@RequiredArgsConstructor
+public class TenantFilter extends OncePerRequestFilter {
+
+    public static final String TENANT_HEADER = "X-Tenant-Id";
+
+    private static final Set<String> FAN_OUT_PATHS = Set.of("/api/users", "/api/users/birthdays");
+
+    private final TenancyProperties tenancyProperties;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !tenancyProperties.isEnabled() || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String tenantId = request.getHeader(TENANT_HEADER);
+        if (tenantId == null) {
+            tenantId = tenancyProperties.getDefaultTenant();
+        }
+
+        if (TenantContext.ALL_TENANTS.equals(tenantId)) {
+            if (!HttpMethod.GET.matches(request.getMethod()) || !FAN_OUT_PATHS.contains(request.getRequestURI())) {
+                reject(response, "Tenant " + TenantContext.ALL_TENANTS + " is only allowed when listing users");
+                return;
+            }
+        } else if (!tenancyProperties.getTenants().containsKey(tenantId)) {
+            reject(response, "Unknown tenant: " + tenantId);
+            return;
+        }
+
+        TenantContext.setTenantId(tenantId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            TenantContext.clear();
+        }
+    }
+
+    private static void reject(HttpServletResponse response, String message) throws IOException {
+        response.setStatus(HttpStatus.BAD_REQUEST.value());
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write(message);
+    }
+}
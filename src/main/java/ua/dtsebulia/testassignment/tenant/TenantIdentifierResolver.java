@@ -0,0 +1,27 @@
+package ua.dtsebulia.testassignment.tenant;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.context.spi.CurrentTenantIdentifierResolver;
+
+/**
+ * Tells Hibernate which tenant a new session belongs to, based on the {@link TenantContext}.
+ */
+@RequiredArgsConstructor
+public class TenantIdentifierResolver implements CurrentTenantIdentifierResolver {
+
+    private final TenantRouter tenantRouter;
+
+    @Override
+    public String resolveCurrentTenantIdentifier() {
+        String tenantId = TenantContext.getTenantId();
+        if (tenantId == null || TenantContext.ALL_TENANTS.equals(tenantId)) {
+            return tenantRouter.getDefaultTenant();
+        }
+        return tenantId;
+    }
+
+    @Override
+    public boolean validateExistingCurrentSessions() {
+        return true;
+    }
+}
@@ -0,0 +1,97 @@
+package ua.dtsebulia.testassignment.tenant;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Routes tenants to the shard and schema that hold their users.
+ * <p>
+ * The shard pools are not beans, so their Hikari metrics, tagged with pool shard-&lt;name&gt;, are registered here.
+ */
+@Slf4j
+public class TenantRouter implements AutoCloseable {
+
+    private final Map<String, String> schemas;
+    private final Map<String, HikariDataSource> shards = new LinkedHashMap<>();
+    private final Map<String, String> shardByTenant = new LinkedHashMap<>();
+    private final String defaultTenant;
+
+    public TenantRouter(TenancyProperties properties, MeterRegistry meterRegistry) {
+        if (properties.getTenants().isEmpty()) {
+            throw new IllegalStateException("tenancy.tenants must list at least one tenant");
+        }
+        if (!properties.getTenants().containsKey(properties.getDefaultTenant())) {
+            throw new IllegalStateException("tenancy.defaultTenant must be one of tenancy.tenants");
+        }
+        this.schemas = Map.copyOf(properties.getTenants());
+        this.defaultTenant = properties.getDefaultTenant();
+
+        properties.getShards().forEach((name, shard) -> {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(shard.getUrl())
+                    .username(shard.getUsername())
+                    .password(shard.getPassword())
+                    .build();
+            dataSource.setPoolName("shard-" + name);
+            dataSource.setMaximumPoolSize(shard.getMaximumPoolSize());
+            dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            shards.put(name, dataSource);
+        });
+
+        ConsistentHashRing ring = new ConsistentHashRing(shards.keySet(), properties.getVirtualNodes());
+        for (String tenantId : schemas.keySet()) {
+            String shard = ring.nodeFor(tenantId);
+            shardByTenant.put(tenantId, shard);
+            log.info("Tenant {} is stored in schema {} on shard {}", tenantId, schemas.get(tenantId), shard);
+        }
+    }
+
+    /**
+     * @param tenantId The tenant ID, null or {@link TenantContext#ALL_TENANTS} for the default tenant.
+     * @return The data source of the shard holding the tenant.
+     */
+    public DataSource dataSourceFor(String tenantId) {
+        return shards.get(shardByTenant.get(resolve(tenantId)));
+    }
+
+    /**
+     * @param tenantId The tenant ID, null or {@link TenantContext#ALL_TENANTS} for the default tenant.
+     * @return The schema holding the tenant's tables.
+     */
+    public String schemaFor(String tenantId) {
+        return schemas.get(resolve(tenantId));
+    }
+
+    public String getDefaultTenant() {
+        return defaultTenant;
+    }
+
+    public Iterable<String> getTenants() {
+        return schemas.keySet();
+    }
+
+    @Override
+    public void close() {
+        shards.values().forEach(HikariDataSource::close);
+    }
+
+    // Helper method to fall back to the default tenant and reject unknown ones.
+
+    private String resolve(String tenantId) {
+        if (tenantId == null || TenantContext.ALL_TENANTS.equals(tenantId)) {
+            return defaultTenant;
+        }
+        if (!schemas.containsKey(tenantId)) {
+            throw new IllegalArgumentException("Unknown tenant: " + tenantId);
+        }
+        return tenantId;
+    }
+}
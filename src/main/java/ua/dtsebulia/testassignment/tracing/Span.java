@@ -0,0 +1,28 @@
+package ua.dtsebulia.testassignment.tracing;
+
+/**
+ * Timed section of a traced request, closed with try-with-resources.
+ */
+public class Span implements AutoCloseable {
+
+    static final Span NOOP = new Span(null, null, 0);
+
+    private final Trace trace;
+    private final String name;
+    private final int depth;
+    private final long startNanos;
+
+    Span(Trace trace, String name, int depth) {
+        this.trace = trace;
+        this.name = name;
+        this.depth = depth;
+        this.startNanos = trace != null ? System.nanoTime() : 0;
+    }
+
+    @Override
+    public void close() {
+        if (trace != null) {
+            trace.endSpan(name, depth, startNanos, System.nanoTime());
+        }
+    }
+}
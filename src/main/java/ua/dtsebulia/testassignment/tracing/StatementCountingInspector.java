@@ -0,0 +1,15 @@
+package ua.dtsebulia.testassignment.tracing;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts every SQL statement Hibernate prepares against the request traced on the current thread.
+ */
+public class StatementCountingInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        Tracing.recordStatement(sql);
+        return sql;
+    }
+}
@@ -0,0 +1,97 @@
+package ua.dtsebulia.testassignment.tracing;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * State of the request being traced on the current thread.
+ * <p>
+ * SQL statements are counted for every request, so statement-heavy requests are detected even when they are not
+ * sampled. Statements may also be recorded by threads the trace was propagated to. Spans are only recorded for
+ * sampled requests, on the thread that started the trace, and at most a fixed number of them.
+ */
+final class Trace {
+
+    private static final int MAX_STATEMENT_SHAPES = 32;
+
+    private final Thread owner = Thread.currentThread();
+    private final boolean sampled;
+    private final int maxSpans;
+    private final long startNanos = System.nanoTime();
+    private final List<SpanRecord> spans;
+    private Map<String, Integer> statementShapes;
+    private int statementCount;
+    private int depth;
+
+    Trace(boolean sampled, int maxSpans) {
+        this.sampled = sampled;
+        this.maxSpans = maxSpans;
+        this.spans = sampled ? new ArrayList<>() : List.of();
+    }
+
+    Span startSpan(String name) {
+        if (!sampled || spans.size() >= maxSpans || Thread.currentThread() != owner) {
+            return Span.NOOP;
+        }
+        return new Span(this, name, depth++);
+    }
+
+    void endSpan(String name, int spanDepth, long spanStartNanos, long spanEndNanos) {
+        depth = spanDepth;
+        if (spans.size() < maxSpans) {
+            spans.add(new SpanRecord(name, spanDepth,
+                    (spanStartNanos - startNanos) / 1_000, (spanEndNanos - spanStartNanos) / 1_000));
+        }
+    }
+
+    synchronized void recordStatement(String sql) {
+        statementCount++;
+        if (statementShapes == null) {
+            statementShapes = new HashMap<>();
+        }
+        if (statementShapes.size() < MAX_STATEMENT_SHAPES || statementShapes.containsKey(sql)) {
+            statementShapes.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * @param threshold Minimum number of executions.
+     * @return Statements executed at least threshold times in this request, a sign of an N+1 query pattern.
+     */
+    synchronized List<String> repeatedStatements(int threshold) {
+        if (statementShapes == null) {
+            return List.of();
+        }
+        List<String> repeated = new ArrayList<>();
+        statementShapes.forEach((sql, count) -> {
+            if (count >= threshold) {
+                repeated.add(sql);
+            }
+        });
+        return repeated;
+    }
+
+    boolean isSampled() {
+        return sampled;
+    }
+
+    synchronized int getStatementCount() {
+        return statementCount;
+    }
+
+    long getStartNanos() {
+        return startNanos;
+    }
+
+    List<SpanRecord> getSpans() {
+        return spans;
+    }
+
+    /**
+     * A closed span, with offset and duration in microseconds relative to the start of the request.
+     */
+    record SpanRecord(String name, int depth, long offsetMicros, long durationMicros) {
+    }
+}
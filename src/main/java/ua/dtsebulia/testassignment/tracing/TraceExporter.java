@@ -0,0 +1,98 @@
+package ua.dtsebulia.testassignment.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Writes finished traces as JSON lines to a local file.
+ * <p>
+ * The file, by default target/traces.jsonl or traces.jsonl in logging.file.path if that is set, is only created
+ * once the first trace is exported, so contexts that never sample a request leave nothing behind.
+ * <p>
+ * Requests only hand their trace to a bounded queue, a background thread does the serialization and I/O. When the
+ * queue is full the trace is dropped and counted in the tracing.traces.dropped metric instead of slowing the
+ * request down.
+ */
+@Component
+@Slf4j
+public class TraceExporter {
+
+    private final ObjectMapper objectMapper;
+    private final BlockingQueue<TraceRecord> queue;
+    private final Counter droppedTraces;
+    private final Path exportFile;
+    private final Thread writerThread;
+
+    public TraceExporter(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                         @Value("${tracing.exportFile}") String exportFile,
+                         @Value("${tracing.exportQueueSize}") int exportQueueSize) {
+        this.objectMapper = objectMapper;
+        this.queue = new ArrayBlockingQueue<>(exportQueueSize);
+        this.droppedTraces = meterRegistry.counter("tracing.traces.dropped");
+        this.exportFile = Path.of(exportFile);
+        this.writerThread = new Thread(this::writeTraces, "trace-exporter");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Queue a trace for export without blocking.
+     *
+     * @param trace The finished trace.
+     */
+    public void export(TraceRecord trace) {
+        if (!queue.offer(trace)) {
+            droppedTraces.increment();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writerThread.interrupt();
+    }
+
+    // Helper methods running on the writer thread, flushing whenever the queue runs empty.
+
+    private void writeTraces() {
+        try {
+            TraceRecord trace = queue.take();
+            try (BufferedWriter writer = openExportFile()) {
+                while (true) {
+                    writer.write(objectMapper.writeValueAsString(trace));
+                    writer.newLine();
+                    if (queue.isEmpty()) {
+                        writer.flush();
+                    }
+                    trace = queue.take();
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (IOException ex) {
+            log.error("Trace export to {} failed, no more traces will be written", exportFile, ex);
+        }
+    }
+
+    private BufferedWriter openExportFile() throws IOException {
+        Path directory = exportFile.toAbsolutePath().getParent();
+        if (directory != null) {
+            Files.createDirectories(directory);
+        }
+        return Files.newBufferedWriter(exportFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+}
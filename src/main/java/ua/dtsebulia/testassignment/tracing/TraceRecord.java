@@ -0,0 +1,19 @@
+package ua.dtsebulia.testassignment.tracing;
+
+import java.util.List;
+
+/**
+ * Exported form of a finished request trace, written as one JSON line.
+ *
+ * @param traceId          Random identifier of the trace.
+ * @param name             HTTP method and path of the request.
+ * @param startEpochMillis Wall clock start of the request.
+ * @param durationMicros   Duration of the request.
+ * @param status           HTTP status of the response.
+ * @param statements       Number of SQL statements the request issued.
+ * @param flags            Detected problems, e.g. too many statements or an N+1 pattern.
+ * @param spans            Recorded spans, empty if the request was not sampled.
+ */
+public record TraceRecord(String traceId, String name, long startEpochMillis, long durationMicros, int status,
+                          int statements, List<String> flags, List<Trace.SpanRecord> spans) {
+}
@@ -0,0 +1,89 @@
+package ua.dtsebulia.testassignment.tracing;
+
+import java.util.function.Supplier;
+
+/**
+ * Entry point for adding spans to the request traced on the current thread.
+ * <p>
+ * Outside a sampled request every method is a thread-local lookup and returns immediately, so code can be
+ * instrumented unconditionally:
+ * <pre>
+ * try (Span span = Tracing.startSpan("UserService.normalizeDateOfBirth")) {
+ *     ...
+ * }
+ * </pre>
+ * Work handed to other threads on behalf of the request is wrapped with {@link #propagate(Supplier)}, so the SQL it
+ * issues is counted against the request too.
+ */
+public final class Tracing {
+
+    private static final ThreadLocal<Trace> CURRENT_TRACE = new ThreadLocal<>();
+
+    private Tracing() {
+    }
+
+    /**
+     * Start a span in the current trace.
+     *
+     * @param name Name of the span.
+     * @return The started span, or a no-op span if the current request is not sampled.
+     */
+    public static Span startSpan(String name) {
+        Trace trace = CURRENT_TRACE.get();
+        return trace != null ? trace.startSpan(name) : Span.NOOP;
+    }
+
+    /**
+     * @return True if spans of the current request are recorded.
+     */
+    public static boolean isSampling() {
+        Trace trace = CURRENT_TRACE.get();
+        return trace != null && trace.isSampled();
+    }
+
+    /**
+     * Carry the current trace over to the thread that runs a task.
+     * <p>
+     * Statements the task issues are counted against the trace. Spans are only recorded on the request's own
+     * thread, since the task runs concurrently with it.
+     *
+     * @param task The task to run on another thread.
+     * @return The task, running with the current trace, or the task itself if there is no current trace.
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> task) {
+        Trace trace = CURRENT_TRACE.get();
+        if (trace == null) {
+            return task;
+        }
+        return () -> {
+            Trace previous = CURRENT_TRACE.get();
+            CURRENT_TRACE.set(trace);
+            try {
+                return task.get();
+            } finally {
+                if (previous != null) {
+                    CURRENT_TRACE.set(previous);
+                } else {
+                    CURRENT_TRACE.remove();
+                }
+            }
+        };
+    }
+
+    static void recordStatement(String sql) {
+        Trace trace = CURRENT_TRACE.get();
+        if (trace != null) {
+            trace.recordStatement(sql);
+        }
+    }
+
+    static Trace begin(boolean sampled, int maxSpans) {
+        Trace trace = new Trace(sampled, maxSpans);
+        CURRENT_TRACE.set(trace);
+        return trace;
+    }
+
+    static void end() {
+        CURRENT_TRACE.remove();
+    }
+}
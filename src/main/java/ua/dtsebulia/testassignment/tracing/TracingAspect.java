@@ -0,0 +1,43 @@
+package ua.dtsebulia.testassignment.tracing;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+/**
+ * Aspect that records a span for every controller, service and repository call of a sampled request.
+ * <p>
+ * Calls of requests that are not sampled go straight through after a single thread-local lookup.
+ */
+@Aspect
+@Component
+public class TracingAspect {
+
+    @Around("within(ua.dtsebulia.testassignment..*) && (@within(org.springframework.web.bind.annotation.RestController)"
+            + " || @within(org.springframework.stereotype.Service))"
+            + " || this(org.springframework.data.repository.Repository)")
+    public Object trace(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (!Tracing.isSampling()) {
+            return joinPoint.proceed();
+        }
+        try (Span span = Tracing.startSpan(spanName(joinPoint))) {
+            return joinPoint.proceed();
+        }
+    }
+
+    // Helper method to name repository spans after the repository interface rather than the Spring Data base class.
+
+    private static String spanName(ProceedingJoinPoint joinPoint) {
+        Class<?> type = joinPoint.getSignature().getDeclaringType();
+        if (joinPoint.getThis() instanceof Repository<?, ?>) {
+            Class<?>[] interfaces = AopProxyUtils.proxiedUserInterfaces(joinPoint.getThis());
+            if (interfaces.length > 0) {
+                type = interfaces[0];
+            }
+        }
+        return type.getSimpleName() + "." + joinPoint.getSignature().getName();
+    }
+}
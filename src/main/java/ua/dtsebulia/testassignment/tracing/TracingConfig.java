@@ -0,0 +1,32 @@
+package ua.dtsebulia.testassignment.tracing;
+
+import jakarta.validation.Validator;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configuration that hooks tracing into Hibernate and Spring MVC validation.
+ */
+@Configuration
+public class TracingConfig implements WebMvcConfigurer {
+
+    private final Validator validator;
+
+    public TracingConfig(Validator validator) {
+        this.validator = validator;
+    }
+
+    @Override
+    public org.springframework.validation.Validator getValidator() {
+        return new TracingValidator(new SpringValidatorAdapter(validator));
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer statementCountingCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new StatementCountingInspector());
+    }
+}
@@ -0,0 +1,97 @@
+package ua.dtsebulia.testassignment.tracing;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Filter that traces requests to the REST API.
+ * <p>
+ * A fraction of requests given by tracing.sampleRate is sampled and gets its spans recorded. SQL statements are
+ * counted for all requests; a request that issues more than tracing.maxStatementsPerRequest statements, or runs the
+ * same statement at least tracing.nPlusOneThreshold times, is logged and exported even if it was not sampled.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@Slf4j
+public class TracingFilter extends OncePerRequestFilter {
+
+    static final String TOO_MANY_STATEMENTS = "too_many_statements";
+    static final String N_PLUS_ONE = "n_plus_one";
+
+    private final TraceExporter traceExporter;
+
+    @Value("${tracing.enabled}")
+    private boolean enabled;
+
+    @Value("${tracing.sampleRate}")
+    private double sampleRate;
+
+    @Value("${tracing.maxSpansPerTrace}")
+    private int maxSpansPerTrace;
+
+    @Value("${tracing.maxStatementsPerRequest}")
+    private int maxStatementsPerRequest;
+
+    @Value("${tracing.nPlusOneThreshold}")
+    private int nPlusOneThreshold;
+
+    public TracingFilter(TraceExporter traceExporter) {
+        this.traceExporter = traceExporter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        boolean sampled = ThreadLocalRandom.current().nextDouble() < sampleRate;
+        long startEpochMillis = System.currentTimeMillis();
+        Trace trace = Tracing.begin(sampled, maxSpansPerTrace);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Tracing.end();
+            finish(trace, request.getMethod() + " " + request.getRequestURI(), startEpochMillis, response.getStatus());
+        }
+    }
+
+    // Helper method to detect statement-heavy requests and hand the trace to the exporter.
+
+    private void finish(Trace trace, String name, long startEpochMillis, int status) {
+        List<String> flags = new ArrayList<>();
+        if (trace.getStatementCount() > maxStatementsPerRequest) {
+            flags.add(TOO_MANY_STATEMENTS);
+            log.warn("{} issued {} SQL statements", name, trace.getStatementCount());
+        }
+        List<String> repeated = trace.repeatedStatements(nPlusOneThreshold);
+        if (!repeated.isEmpty()) {
+            flags.add(N_PLUS_ONE);
+            log.warn("{} repeated SQL statements at least {} times, possible N+1 query: {}",
+                    name, nPlusOneThreshold, repeated);
+        }
+
+        if (trace.isSampled() || !flags.isEmpty()) {
+            long durationMicros = (System.nanoTime() - trace.getStartNanos()) / 1_000;
+            traceExporter.export(new TraceRecord(UUID.randomUUID().toString(), name, startEpochMillis,
+                    durationMicros, status, trace.getStatementCount(), flags, trace.getSpans()));
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package ua.dtsebulia.testassignment.tracing;
+
+import org.springframework.validation.Errors;
+import org.springframework.validation.SmartValidator;
+
+/**
+ * Validator that records Bean Validation of request bodies as its own span.
+ */
+public class TracingValidator implements SmartValidator {
+
+    private final SmartValidator delegate;
+
+    public TracingValidator(SmartValidator delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public boolean supports(Class<?> clazz) {
+        return delegate.supports(clazz);
+    }
+
+    @Override
+    public void validate(Object target, Errors errors) {
+        try (Span span = Tracing.startSpan("Validation." + target.getClass().getSimpleName())) {
+            delegate.validate(target, errors);
+        }
+    }
+
+    @Override
+    public void validate(Object target, Errors errors, Object... validationHints) {
+        try (Span span = Tracing.startSpan("Validation." + target.getClass().getSimpleName())) {
+            delegate.validate(target, errors, validationHints);
+        }
+    }
+}
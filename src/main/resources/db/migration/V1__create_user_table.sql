@@ -0,0 +1,11 @@
+CREATE TABLE IF NOT EXISTS user
+(
+    id            INT          NOT NULL AUTO_INCREMENT,
+    first_name    VARCHAR(255),
+    last_name     VARCHAR(255),
+    email         VARCHAR(255),
+    date_of_birth DATETIME(6),
+    address       VARCHAR(255),
+    phone_number  VARCHAR(255),
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,9 @@
+CREATE TABLE IF NOT EXISTS user_change
+(
+    sequence_number BIGINT       NOT NULL AUTO_INCREMENT,
+    user_id         INT          NOT NULL,
+    type            VARCHAR(255) NOT NULL,
+    changed_at      DATETIME(6)  NOT NULL,
+    payload         TEXT,
+    PRIMARY KEY (sequence_number)
+);
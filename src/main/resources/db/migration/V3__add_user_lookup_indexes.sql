@@ -0,0 +1,2 @@
+CREATE INDEX idx_user_email ON user (email);
+CREATE INDEX idx_user_date_of_birth ON user (date_of_birth);
@@ -0,0 +1,27 @@
+CREATE TABLE IF NOT EXISTS user_cohort_entry
+(
+    user_id     INT         NOT NULL,
+    birth_month INT         NOT NULL,
+    birth_day   INT         NOT NULL,
+    age         INT         NOT NULL,
+    bracket     VARCHAR(32) NOT NULL,
+    PRIMARY KEY (user_id)
+);
+
+CREATE INDEX idx_user_cohort_entry_birthday ON user_cohort_entry (birth_month, birth_day);
+CREATE INDEX idx_user_cohort_entry_age_birthday ON user_cohort_entry (age, birth_month, birth_day);
+
+CREATE TABLE IF NOT EXISTS cohort_count
+(
+    bracket     VARCHAR(32) NOT NULL,
+    birth_month INT         NOT NULL,
+    user_count  BIGINT      NOT NULL,
+    PRIMARY KEY (bracket, birth_month)
+);
+
+CREATE TABLE IF NOT EXISTS cohort_rollover
+(
+    id                 INT  NOT NULL,
+    last_rollover_date DATE NOT NULL,
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,79 @@
+package ua.dtsebulia.testassignment.cache;
+
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+class HibernateCacheEndpointTest {
+
+    @Mock
+    private Statistics statistics;
+
+    @Mock
+    private CacheRegionStatistics userRegion;
+
+    @Mock
+    private CacheRegionStatistics birthdayRangeRegion;
+
+    @Mock
+    private CacheRegionStatistics userByEmailRegion;
+
+    private HibernateCacheEndpoint endpoint;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        endpoint = new HibernateCacheEndpoint(statistics);
+    }
+
+    @Test
+    public void testHitRatioPerRegion() {
+        when(statistics.getSecondLevelCacheRegionNames())
+                .thenReturn(new String[]{CacheRegions.USER, CacheRegions.USER_BIRTHDAY_RANGE});
+        when(statistics.getCacheRegionStatistics(CacheRegions.USER)).thenReturn(userRegion);
+        when(statistics.getQueryRegionStatistics(CacheRegions.USER_BIRTHDAY_RANGE)).thenReturn(birthdayRangeRegion);
+        when(userRegion.getHitCount()).thenReturn(75L);
+        when(userRegion.getMissCount()).thenReturn(25L);
+        when(userRegion.getPutCount()).thenReturn(25L);
+        when(userRegion.getElementCountInMemory()).thenReturn(20L);
+
+        Map<String, HibernateCacheEndpoint.RegionStatistics> regions = endpoint.regions();
+
+        assertEquals(2, regions.size());
+        HibernateCacheEndpoint.RegionStatistics user = regions.get(CacheRegions.USER);
+        assertEquals(75, user.hits());
+        assertEquals(25, user.misses());
+        assertEquals(0.75, user.hitRatio(), 1e-9);
+        assertEquals(20, user.elements());
+        assertEquals(0, regions.get(CacheRegions.USER_BIRTHDAY_RANGE).hitRatio());
+    }
+
+    @Test
+    public void testQueryRegionReportsQueryCacheLookups() {
+        when(statistics.getSecondLevelCacheRegionNames()).thenReturn(new String[]{CacheRegions.USER_BY_EMAIL});
+        when(statistics.getQueryRegionStatistics(CacheRegions.USER_BY_EMAIL)).thenReturn(userByEmailRegion);
+        when(statistics.getCacheRegionStatistics(CacheRegions.USER_BY_EMAIL)).thenReturn(userRegion);
+        when(userByEmailRegion.getHitCount()).thenReturn(9L);
+        when(userByEmailRegion.getMissCount()).thenReturn(1L);
+
+        HibernateCacheEndpoint.RegionStatistics byEmail = endpoint.regions().get(CacheRegions.USER_BY_EMAIL);
+
+        assertEquals(9, byEmail.hits());
+        assertEquals(0.9, byEmail.hitRatio(), 1e-9);
+    }
+
+    @Test
+    public void testRegionsWithoutStatisticsAreSkipped() {
+        when(statistics.getSecondLevelCacheRegionNames()).thenReturn(new String[]{CacheRegions.USER});
+
+        assertTrue(endpoint.regions().isEmpty());
+    }
+}
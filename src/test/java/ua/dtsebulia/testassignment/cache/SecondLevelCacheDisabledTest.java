@@ -0,0 +1,88 @@
+package ua.dtsebulia.testassignment.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ua.dtsebulia.testassignment.model.User;
+import ua.dtsebulia.testassignment.repository.UserRepository;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Checks that cache regions can be turned off one by one: the user entity and birthday range regions are off, while
+ * the email region stays on. Uses a database of its own, as its schema is created by a separate application context.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+        "spring.datasource.url=jdbc:h2:mem:cache-disabled;MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1",
+        "cache.user.enabled=false",
+        "cache.birthdayRange.enabled=false"
+})
+@ActiveProfiles("loadtest")
+class SecondLevelCacheDisabledTest {
+
+    private static final String EMAIL = "cache-disabled@example.com";
+    private static final LocalDate DATE_OF_BIRTH = LocalDate.of(1901, 4, 10);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        user = userRepository.save(new User(null, "First", "Last", EMAIL, date(DATE_OF_BIRTH), null, null));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    public void testDisabledEntityRegionIsNotUsed() {
+        long lookups = statistics.getSecondLevelCacheHitCount() + statistics.getSecondLevelCacheMissCount();
+        long puts = statistics.getSecondLevelCachePutCount();
+
+        assertTrue(userRepository.findById(user.getId()).isPresent());
+        assertTrue(userRepository.findById(user.getId()).isPresent());
+
+        assertEquals(lookups, statistics.getSecondLevelCacheHitCount() + statistics.getSecondLevelCacheMissCount());
+        assertEquals(puts, statistics.getSecondLevelCachePutCount());
+    }
+
+    @Test
+    public void testOnlyEnabledQueryRegionsAreUsed() {
+        long puts = statistics.getQueryCachePutCount();
+
+        assertEquals(1, userRepository.findUsersByBirthdayRange(date(DATE_OF_BIRTH), date(DATE_OF_BIRTH)).size());
+        assertEquals(1, userRepository.findUsersByBirthdayRange(date(DATE_OF_BIRTH), date(DATE_OF_BIRTH)).size());
+
+        assertEquals(puts, statistics.getQueryCachePutCount());
+
+        assertTrue(userRepository.findByEmail(EMAIL).isPresent());
+
+        assertEquals(puts + 1, statistics.getQueryCachePutCount());
+    }
+
+    // Helper method to convert dates.
+
+    private static Date date(LocalDate date) {
+        return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
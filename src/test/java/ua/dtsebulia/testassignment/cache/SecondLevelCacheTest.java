@@ -0,0 +1,145 @@
+package ua.dtsebulia.testassignment.cache;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ua.dtsebulia.testassignment.model.User;
+import ua.dtsebulia.testassignment.repository.UserRepository;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the user lookups against the second-level cache and the embedded database of the loadtest profile, and
+ * checks the cached results are dropped once the user table is written to.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("loadtest")
+class SecondLevelCacheTest {
+
+    private static final LocalDate RANGE_FROM = LocalDate.of(1901, 4, 1);
+    private static final LocalDate RANGE_TO = LocalDate.of(1901, 4, 30);
+    private static final HibernateCacheEndpoint.RegionStatistics NO_LOOKUPS =
+            new HibernateCacheEndpoint.RegionStatistics(0, 0, 0, 0, -1);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private HibernateCacheEndpoint hibernateCacheEndpoint;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final List<Integer> userIds = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        createUser("cache-first@example.com", LocalDate.of(1901, 4, 10));
+        createUser("cache-second@example.com", LocalDate.of(1901, 4, 20));
+        awaitNextTimestamp();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        userIds.forEach(userRepository::deleteById);
+    }
+
+    @Test
+    public void testBirthdayRangeResultsAreInvalidatedOnSave() throws InterruptedException {
+        HibernateCacheEndpoint.RegionStatistics before = region(CacheRegions.USER_BIRTHDAY_RANGE);
+
+        assertEquals(2, findUsersInRange().size());
+        assertEquals(2, findUsersInRange().size());
+
+        HibernateCacheEndpoint.RegionStatistics warmed = region(CacheRegions.USER_BIRTHDAY_RANGE);
+        assertEquals(before.hits() + 1, warmed.hits());
+        assertEquals(before.misses() + 1, warmed.misses());
+        assertEquals(before.puts() + 1, warmed.puts());
+
+        User moved = createUser("cache-third@example.com", LocalDate.of(1901, 4, 15));
+
+        assertEquals(3, findUsersInRange().size());
+        awaitNextTimestamp();
+
+        moved.setDateOfBirth(date(LocalDate.of(1901, 5, 15)));
+        userRepository.save(moved);
+
+        assertEquals(2, findUsersInRange().size());
+        HibernateCacheEndpoint.RegionStatistics invalidated = region(CacheRegions.USER_BIRTHDAY_RANGE);
+        assertEquals(warmed.hits(), invalidated.hits());
+        assertEquals(warmed.misses() + 2, invalidated.misses());
+    }
+
+    @Test
+    public void testUserByEmailResultIsInvalidatedOnUpdateAndDelete() {
+        User user = userRepository.findByEmail("cache-first@example.com").orElseThrow();
+        assertEquals("First", userRepository.findByEmail("cache-first@example.com").orElseThrow().getFirstName());
+
+        HibernateCacheEndpoint.RegionStatistics warmed = region(CacheRegions.USER_BY_EMAIL);
+        assertTrue(warmed.hits() > 0);
+
+        user.setFirstName("Changed");
+        userRepository.save(user);
+
+        assertEquals("Changed", userRepository.findByEmail("cache-first@example.com").orElseThrow().getFirstName());
+
+        userRepository.deleteById(user.getId());
+
+        assertTrue(userRepository.findByEmail("cache-first@example.com").isEmpty());
+        HibernateCacheEndpoint.RegionStatistics invalidated = region(CacheRegions.USER_BY_EMAIL);
+        assertEquals(warmed.hits(), invalidated.hits());
+        assertEquals(warmed.misses() + 2, invalidated.misses());
+    }
+
+    @Test
+    public void testUserIsReadFromEntityCache() throws InterruptedException {
+        Integer id = userIds.get(0);
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictEntityData(User.class, id);
+        HibernateCacheEndpoint.RegionStatistics before = region(CacheRegions.USER);
+
+        assertTrue(userRepository.findById(id).isPresent());
+        awaitNextTimestamp();
+        assertTrue(userRepository.findById(id).isPresent());
+
+        HibernateCacheEndpoint.RegionStatistics after = region(CacheRegions.USER);
+        assertEquals(before.misses() + 1, after.misses());
+        assertEquals(before.hits() + 1, after.hits());
+        assertTrue(after.hitRatio() > 0);
+    }
+
+    // Helper methods to create users and read the region statistics.
+
+    // Cached entries are only trusted when they were stored after the last write, compared at millisecond resolution.
+    private static void awaitNextTimestamp() throws InterruptedException {
+        Thread.sleep(10);
+    }
+
+    private User createUser(String email, LocalDate dateOfBirth) {
+        User user = userRepository.save(new User(null, "First", "Last", email, date(dateOfBirth), null, null));
+        userIds.add(user.getId());
+        return user;
+    }
+
+    private List<User> findUsersInRange() {
+        return userRepository.findUsersByBirthdayRange(date(RANGE_FROM), date(RANGE_TO));
+    }
+
+    private HibernateCacheEndpoint.RegionStatistics region(String regionName) {
+        return hibernateCacheEndpoint.regions().getOrDefault(regionName, NO_LOOKUPS);
+    }
+
+    private static Date date(LocalDate date) {
+        return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
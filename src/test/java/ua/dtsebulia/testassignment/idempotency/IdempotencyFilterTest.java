@@ -0,0 +1,200 @@
+package ua.dtsebulia.testassignment.idempotency;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyFilterTest {
+
+    private static final String BODY = "{\"email\":\"user@example.com\"}";
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    private IdempotencyFilter idempotencyFilter;
+
+    @BeforeEach
+    public void setUp() {
+        idempotencyFilter = new IdempotencyFilter(new IdempotencyStore(Duration.ofMinutes(1), 100));
+        ReflectionTestUtils.setField(idempotencyFilter, "waitTimeout", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(idempotencyFilter, "maxBodySize", DataSize.ofBytes(64));
+    }
+
+    @Test
+    public void testRetryIsReplayed() throws Exception {
+        MockHttpServletResponse first = post("key", BODY, respondWith(201));
+        MockHttpServletResponse retry = post("key", BODY, respondWith(201));
+
+        assertEquals(1, executions.get());
+        assertEquals(201, retry.getStatus());
+        assertEquals(first.getContentAsString(), retry.getContentAsString());
+        assertEquals("true", retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+    }
+
+    @Test
+    public void testControllerReceivesRequestBody() throws Exception {
+        StringBuilder received = new StringBuilder();
+
+        post("key", BODY, (request, response) -> {
+            received.append(new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+            ((HttpServletResponse) response).setStatus(201);
+        });
+
+        assertEquals(BODY, received.toString());
+    }
+
+    @Test
+    public void testReusedKeyWithDifferentBodyIsRejected() throws Exception {
+        post("key", BODY, respondWith(201));
+
+        MockHttpServletResponse reused = post("key", "{\"email\":\"other@example.com\"}", respondWith(201));
+
+        assertEquals(1, executions.get());
+        assertEquals(422, reused.getStatus());
+    }
+
+    @Test
+    public void testConcurrentDuplicateWaitsForInFlightRequest() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        FilterChain slowChain = (request, response) -> {
+            executions.incrementAndGet();
+            started.countDown();
+            try {
+                finish.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            ((HttpServletResponse) response).setStatus(201);
+            response.getWriter().write("created");
+        };
+
+        CompletableFuture<MockHttpServletResponse> owner = CompletableFuture.supplyAsync(() -> postUnchecked(slowChain));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<MockHttpServletResponse> duplicate =
+                CompletableFuture.supplyAsync(() -> postUnchecked(respondWith(201)));
+
+        Thread.sleep(100);
+        assertFalse(duplicate.isDone());
+        finish.countDown();
+
+        assertEquals(201, owner.get(5, TimeUnit.SECONDS).getStatus());
+        MockHttpServletResponse replayed = duplicate.get(5, TimeUnit.SECONDS);
+        assertEquals(201, replayed.getStatus());
+        assertEquals("created", replayed.getContentAsString());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    public void testKeyIsReleasedOnServerError() throws Exception {
+        MockHttpServletResponse failed = post("key", BODY, respondWith(500));
+        MockHttpServletResponse retry = post("key", BODY, respondWith(201));
+
+        assertEquals(500, failed.getStatus());
+        assertEquals(201, retry.getStatus());
+        assertNull(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER));
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    public void testControllerCanReadRequestBodyAsynchronously() throws Exception {
+        ByteArrayOutputStream received = new ByteArrayOutputStream();
+
+        post("key", BODY, (request, response) -> {
+            ServletInputStream in = request.getInputStream();
+            in.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    byte[] buffer = new byte[8];
+                    while (in.isReady() && !in.isFinished()) {
+                        received.write(buffer, 0, in.read(buffer));
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    ((HttpServletResponse) response).setStatus(201);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    ((HttpServletResponse) response).setStatus(500);
+                }
+            });
+        });
+
+        assertEquals(BODY, received.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testOversizedBodyIsRejected() throws Exception {
+        MockHttpServletResponse response = post("key", "x".repeat(65), respondWith(201));
+
+        assertEquals(413, response.getStatus());
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    public void testOversizedBodyWithoutContentLengthIsRejected() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/users") {
+            @Override
+            public long getContentLengthLong() {
+                return -1;
+            }
+        };
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "key");
+        request.setContent("x".repeat(65).getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        idempotencyFilter.doFilter(request, response, respondWith(201));
+
+        assertEquals(413, response.getStatus());
+        assertEquals(0, executions.get());
+    }
+
+    // Helper methods to send a POST through the filter.
+
+    private FilterChain respondWith(int status) {
+        return (request, response) -> {
+            executions.incrementAndGet();
+            ((HttpServletResponse) response).setStatus(status);
+            response.getWriter().write("response " + executions.get());
+        };
+    }
+
+    private MockHttpServletResponse postUnchecked(FilterChain filterChain) {
+        try {
+            return post("key", BODY, filterChain);
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private MockHttpServletResponse post(String idempotencyKey, String body, FilterChain filterChain)
+            throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/users");
+        request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, idempotencyKey);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        idempotencyFilter.doFilter(request, response, filterChain);
+        return response;
+    }
+}
@@ -0,0 +1,115 @@
+package ua.dtsebulia.testassignment.idempotency;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ua.dtsebulia.testassignment.exception.IdempotencyKeyReusedException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IdempotencyStoreTest {
+
+    private static final String HASH = "hash";
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private IdempotencyStore idempotencyStore;
+
+    @BeforeEach
+    public void setUp() {
+        idempotencyStore = new IdempotencyStore(Duration.ofMinutes(1), 2, clock::get);
+    }
+
+    @Test
+    public void testFirstClaimOwnsKey() {
+        assertNull(idempotencyStore.claim("key", HASH));
+    }
+
+    @Test
+    public void testConcurrentClaimWaitsForOwner() throws Exception {
+        idempotencyStore.claim("key", HASH);
+
+        CompletableFuture<IdempotentResponse> inFlight = idempotencyStore.claim("key", HASH);
+        assertNotNull(inFlight);
+        assertFalse(inFlight.isDone());
+
+        IdempotentResponse response = new IdempotentResponse(201, "application/json", new byte[]{1});
+        idempotencyStore.complete("key", response);
+
+        assertEquals(response, inFlight.get());
+        assertEquals(response, idempotencyStore.claim("key", HASH).get());
+    }
+
+    @Test
+    public void testClaimWithDifferentRequestHashIsRejected() {
+        idempotencyStore.claim("key", HASH);
+
+        assertThrows(IdempotencyKeyReusedException.class, () -> idempotencyStore.claim("key", "other"));
+
+        idempotencyStore.complete("key", new IdempotentResponse(201, null, new byte[0]));
+        assertThrows(IdempotencyKeyReusedException.class, () -> idempotencyStore.claim("key", "other"));
+    }
+
+    @Test
+    public void testReleasedKeyCanBeClaimedAgain() throws Exception {
+        idempotencyStore.claim("key", HASH);
+        CompletableFuture<IdempotentResponse> inFlight = idempotencyStore.claim("key", HASH);
+
+        idempotencyStore.release("key");
+
+        assertNull(inFlight.get());
+        assertNull(idempotencyStore.claim("key", HASH));
+    }
+
+    @Test
+    public void testExpiredResponseIsNotReplayed() {
+        idempotencyStore.claim("key", HASH);
+        idempotencyStore.complete("key", new IdempotentResponse(201, null, new byte[0]));
+
+        clock.addAndGet(Duration.ofMinutes(2).toNanos());
+
+        assertNull(idempotencyStore.claim("key", HASH));
+    }
+
+    @Test
+    public void testInFlightKeyDoesNotExpire() {
+        idempotencyStore.claim("key", HASH);
+
+        clock.addAndGet(Duration.ofMinutes(2).toNanos());
+        idempotencyStore.purgeExpired();
+
+        assertNotNull(idempotencyStore.claim("key", HASH));
+    }
+
+    @Test
+    public void testStoreEvictsCompletedEntriesWhenFull() {
+        idempotencyStore.claim("first", HASH);
+        idempotencyStore.complete("first", new IdempotentResponse(201, null, new byte[0]));
+        clock.incrementAndGet();
+        idempotencyStore.claim("second", HASH);
+        idempotencyStore.complete("second", new IdempotentResponse(201, null, new byte[0]));
+
+        idempotencyStore.claim("third", HASH);
+
+        assertEquals(2, idempotencyStore.size());
+        assertNull(idempotencyStore.claim("first", HASH));
+    }
+
+    @Test
+    public void testPurgeRemovesOnlyExpiredEntries() {
+        idempotencyStore.claim("first", HASH);
+        idempotencyStore.complete("first", new IdempotentResponse(201, null, new byte[0]));
+        clock.addAndGet(Duration.ofSeconds(30).toNanos());
+        idempotencyStore.claim("second", HASH);
+        idempotencyStore.complete("second", new IdempotentResponse(201, null, new byte[0]));
+
+        clock.addAndGet(Duration.ofSeconds(45).toNanos());
+        idempotencyStore.purgeExpired();
+
+        assertEquals(1, idempotencyStore.size());
+        assertNotNull(idempotencyStore.claim("second", HASH));
+    }
+}
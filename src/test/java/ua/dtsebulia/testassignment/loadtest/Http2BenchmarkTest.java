@@ -0,0 +1,156 @@
+package ua.dtsebulia.testassignment.loadtest;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ua.dtsebulia.testassignment.TestAssignmentApplication;
+
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Benchmark of single-ID lookups at high concurrency, default connector against the http2 profile.
+ * <p>
+ * Run with {@code mvn -Pload-test test -Dtest=Http2BenchmarkTest}. Both variants run in this JVM against the same
+ * embedded database: the default connector is driven by an HTTP/1.1 client with a connection per client thread,
+ * the http2 profile by an HTTP/2 client multiplexing every thread over one h2c connection. Server CPU only counts
+ * the connector threads of the server under test; process CPU includes the client. Results are printed and written
+ * to target/loadtest/http2-results.properties.
+ */
+@Tag("load")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class Http2BenchmarkTest {
+
+    private static final int USERS = Integer.getInteger("loadtest.users", 100_000);
+    private static final int OPERATIONS = Integer.getInteger("loadtest.operations", 200_000);
+    private static final int THREADS = Integer.getInteger("loadtest.threads", 256);
+    private static final long SEED = Long.getLong("loadtest.seed", 42);
+
+    // Both servers share one database, and the entity cache is off so both do the same work per lookup.
+    private static final String[] ARGS = {
+            "--server.port=0",
+            "--spring.datasource.url=jdbc:h2:mem:http2bench;MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1",
+            "--spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+            "--spring.jpa.properties.hibernate.cache.use_query_cache=false"
+    };
+
+    private final Map<String, Double> results = new LinkedHashMap<>();
+
+    private ServletWebServerApplicationContext defaultServer;
+    private ServletWebServerApplicationContext http2Server;
+
+    @BeforeAll
+    public void setUp() {
+        defaultServer = start("loadtest");
+        http2Server = start("loadtest", "http2");
+        new UserSeeder(defaultServer.getBean(JdbcTemplate.class)).seed(USERS);
+    }
+
+    @AfterAll
+    public void tearDown() throws Exception {
+        http2Server.close();
+        defaultServer.close();
+
+        Path file = Path.of("target", "loadtest", "http2-results.properties");
+        Files.createDirectories(file.getParent());
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            for (Map.Entry<String, Double> result : results.entrySet()) {
+                writer.write(String.format(Locale.ROOT, "%s=%.2f%n", result.getKey(), result.getValue()));
+            }
+        }
+    }
+
+    @Test
+    @Order(1)
+    public void testDefaultConnector() throws Exception {
+        run("default", defaultServer, HttpClient.Version.HTTP_1_1);
+    }
+
+    @Test
+    @Order(2)
+    public void testHttp2Profile() throws Exception {
+        run("http2", http2Server, HttpClient.Version.HTTP_2);
+    }
+
+    // Helper methods to start the servers and to measure one variant.
+
+    private static ServletWebServerApplicationContext start(String... profiles) {
+        return (ServletWebServerApplicationContext) new SpringApplicationBuilder(TestAssignmentApplication.class)
+                .profiles(profiles)
+                .run(ARGS);
+    }
+
+    private void run(String variant, ServletWebServerApplicationContext server, HttpClient.Version version)
+            throws Exception {
+        int port = server.getWebServer().getPort();
+        HttpClient httpClient = HttpClient.newBuilder().version(version).build();
+
+        HttpResponse<Void> probe = httpClient.send(
+                HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/users/1")).GET().build(),
+                HttpResponse.BodyHandlers.discarding());
+        assertEquals(version, probe.version(), variant + " did not negotiate " + version);
+
+        LoadDriver loadDriver = new LoadDriver(httpClient, "http://localhost:" + port, USERS, SEED);
+        // Warm up the JIT and let the connector grow its thread pool before anything is measured.
+        loadDriver.run(Workload.SINGLE_ID_LOOKUPS, OPERATIONS / 10, THREADS, variant + "-warmup");
+
+        long serverCpuBefore = connectorCpuNanos(port);
+        long processCpuBefore = processCpuNanos();
+        LoadResult result = loadDriver.run(Workload.SINGLE_ID_LOOKUPS, OPERATIONS, THREADS, variant);
+        double serverCpuMicros = (connectorCpuNanos(port) - serverCpuBefore) / 1e3 / result.operations();
+        double processCpuMicros = (processCpuNanos() - processCpuBefore) / 1e3 / result.operations();
+
+        System.out.printf(Locale.ROOT, "%-8s %s  server cpu %6.1f us/req  process cpu %6.1f us/req%n",
+                variant, result.summary(), serverCpuMicros, processCpuMicros);
+        results.put(variant + ".throughput", result.throughput());
+        results.put(variant + ".p50Millis", result.percentileMillis(50));
+        results.put(variant + ".p99Millis", result.percentileMillis(99));
+        results.put(variant + ".p999Millis", result.percentileMillis(99.9));
+        results.put(variant + ".serverCpuMicrosPerRequest", serverCpuMicros);
+        results.put(variant + ".processCpuMicrosPerRequest", processCpuMicros);
+
+        assertEquals(0, result.errors(), variant + " had server errors");
+    }
+
+    /**
+     * @return CPU time of the live Tomcat threads of the connector on the port, named like http-nio-PORT-exec-1.
+     */
+    private static long connectorCpuNanos(int port) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        String prefix = "http-nio-" + port + "-";
+        long cpuNanos = 0;
+        for (ThreadInfo thread : threads.getThreadInfo(threads.getAllThreadIds())) {
+            if (thread != null && thread.getThreadName().startsWith(prefix)) {
+                cpuNanos += Math.max(0, threads.getThreadCpuTime(thread.getThreadId()));
+            }
+        }
+        return cpuNanos;
+    }
+
+    private static long processCpuNanos() {
+        return ((com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean())
+                .getProcessCpuTime();
+    }
+}
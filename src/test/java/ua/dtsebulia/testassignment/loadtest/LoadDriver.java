@@ -0,0 +1,171 @@
+package ua.dtsebulia.testassignment.loadtest;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Drives a {@link Workload} against a running instance with a fixed number of client threads.
+ * <p>
+ * Each thread draws its operations from its own seeded random generator, so the sequence of requests is the
+ * same on every run. Client errors such as 404 or 400 are expected outcomes of the mix; only server errors and
+ * I/O failures are counted as errors.
+ */
+class LoadDriver {
+
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private final int seededUsers;
+    private final long seed;
+
+    LoadDriver(HttpClient httpClient, String baseUrl, int seededUsers, long seed) {
+        this.httpClient = httpClient;
+        this.baseUrl = baseUrl;
+        this.seededUsers = seededUsers;
+        this.seed = seed;
+    }
+
+    /**
+     * Run a workload and measure it.
+     *
+     * @param workload   The request mix.
+     * @param operations Total number of requests to send.
+     * @param threads    Number of concurrent clients.
+     * @param runId      Distinguishes runs, so created users never collide with earlier runs.
+     * @return The measurements of the run.
+     */
+    LoadResult run(Workload workload, int operations, int threads, String runId) throws Exception {
+        int perThread = operations / threads;
+        long[][] latencies = new long[threads][perThread];
+        int[] errors = new int[threads];
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> clients = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                clients.add(executor.submit(() -> {
+                    Random random = new Random(seed * 31 + workload.ordinal() * 1_000 + thread);
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        HttpRequest request = buildRequest(workload.next(random), random, runId + "-" + thread + "-" + i);
+                        long begin = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 500) {
+                                errors[thread]++;
+                            }
+                        } catch (IOException ex) {
+                            errors[thread]++;
+                        }
+                        latencies[thread][i] = System.nanoTime() - begin;
+                    }
+                    return null;
+                }));
+            }
+
+            GcSnapshot gcBefore = GcSnapshot.take();
+            resetPeakHeap();
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> client : clients) {
+                client.get();
+            }
+            long elapsed = System.nanoTime() - begin;
+            GcSnapshot gcAfter = GcSnapshot.take();
+
+            long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+            return new LoadResult(workload, all.length, Arrays.stream(errors).sum(), elapsed, all,
+                    gcAfter.count - gcBefore.count, gcAfter.millis - gcBefore.millis, peakHeap());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Helper method to translate an operation into a request against the UserController endpoints.
+
+    private HttpRequest buildRequest(Workload.Operation operation, Random random, String uniqueSuffix) {
+        int id = 1 + random.nextInt(seededUsers);
+        return switch (operation) {
+            case GET_ALL -> get("/api/users");
+            case GET_BY_ID -> get("/api/users/" + id);
+            case GET_BY_BIRTHDAY_RANGE -> {
+                LocalDate from = UserSeeder.FIRST_BIRTH_DATE.plusDays(random.nextInt(UserSeeder.BIRTH_DAYS));
+                LocalDate to = from.plusDays(1 + random.nextInt(31));
+                yield get("/api/users/birthdays?from=" + from + "&to=" + to);
+            }
+            case CREATE -> post(userJson("load-" + uniqueSuffix + "@example.com"), null);
+            // Retries of the same signup share an idempotency key, only the first one is executed.
+            case CREATE_RETRY -> post(userJson("retry-" + id + "@example.com"), "retry-" + id);
+            case UPDATE -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/users/" + id))
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(userJson(UserSeeder.email(id))))
+                    .build();
+            case DELETE -> HttpRequest.newBuilder(URI.create(baseUrl + "/api/users/" + id)).DELETE().build();
+        };
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofMinutes(5)).GET().build();
+    }
+
+    private HttpRequest post(String json, String idempotencyKey) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + "/api/users"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json));
+        if (idempotencyKey != null) {
+            builder.header("Idempotency-Key", idempotencyKey);
+        }
+        return builder.build();
+    }
+
+    private static String userJson(String email) {
+        return "{\"firstName\":\"Load\",\"lastName\":\"Test\",\"email\":\"" + email + "\"," +
+                "\"dateOfBirth\":\"1990-01-01\",\"address\":\"Kyiv\",\"phoneNumber\":\"+380000000000\"}";
+    }
+
+    private static void resetPeakHeap() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    private static long peakHeap() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .mapToLong(pool -> pool.getPeakUsage().getUsed())
+                .sum();
+    }
+
+    private record GcSnapshot(long count, long millis) {
+
+        static GcSnapshot take() {
+            long count = 0;
+            long millis = 0;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                count += Math.max(0, gc.getCollectionCount());
+                millis += Math.max(0, gc.getCollectionTime());
+            }
+            return new GcSnapshot(count, millis);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package ua.dtsebulia.testassignment.loadtest;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Measurements of one workload run.
+ *
+ * @param workload        The workload that was driven.
+ * @param operations      Number of completed requests.
+ * @param errors          Requests that failed with a server error or an I/O error.
+ * @param elapsedNanos    Wall clock time of the run.
+ * @param latenciesNanos  Latency of every request, sorted ascending.
+ * @param gcCount         Garbage collections during the run.
+ * @param gcMillis        Time spent in garbage collection during the run.
+ * @param peakHeapBytes   Peak heap usage during the run.
+ */
+record LoadResult(Workload workload, int operations, int errors, long elapsedNanos, long[] latenciesNanos,
+                  long gcCount, long gcMillis, long peakHeapBytes) {
+
+    double throughput() {
+        return operations / (elapsedNanos / 1e9);
+    }
+
+    double percentileMillis(double percentile) {
+        if (latenciesNanos.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100 * latenciesNanos.length) - 1;
+        return latenciesNanos[Math.max(0, Math.min(index, latenciesNanos.length - 1))] / 1e6;
+    }
+
+    /**
+     * @return The metrics tracked against the baseline, keyed as in baseline.properties.
+     */
+    Map<String, Double> metrics() {
+        Map<String, Double> metrics = new LinkedHashMap<>();
+        String prefix = workload.name().toLowerCase() + ".";
+        metrics.put(prefix + "throughput", throughput());
+        metrics.put(prefix + "p50Millis", percentileMillis(50));
+        metrics.put(prefix + "p99Millis", percentileMillis(99));
+        metrics.put(prefix + "p999Millis", percentileMillis(99.9));
+        return metrics;
+    }
+
+    String summary() {
+        return String.format("%-16s %8d ops %6d errors %10.1f req/s  p50 %7.2f ms  p99 %7.2f ms  p999 %7.2f ms  " +
+                        "gc %4d (%5d ms)  peak heap %5d MB",
+                workload, operations, errors, throughput(),
+                percentileMillis(50), percentileMillis(99), percentileMillis(99.9),
+                gcCount, gcMillis, peakHeapBytes / (1024 * 1024));
+    }
+
+}
@@ -0,0 +1,85 @@
+package ua.dtsebulia.testassignment.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Stored reference results that load test runs are compared against.
+ * <p>
+ * Throughput may not drop, and latency percentiles may not grow, by more than the tolerance relative to the
+ * baseline. A metric missing from the baseline counts as a regression, so the check can't pass by default.
+ */
+class PerformanceBaseline {
+
+    private static final String RESOURCE = "/loadtest/baseline.properties";
+
+    /**
+     * Source location of the stored baseline, written by runs in record mode.
+     */
+    static final Path SOURCE = Path.of("src", "test", "resources", "loadtest", "baseline.properties");
+
+    private final Properties baseline = new Properties();
+    private final double tolerance;
+
+    PerformanceBaseline(double tolerance) throws IOException {
+        this.tolerance = tolerance;
+        try (InputStream in = PerformanceBaseline.class.getResourceAsStream(RESOURCE)) {
+            if (in != null) {
+                baseline.load(in);
+            }
+        }
+    }
+
+    /**
+     * Compare a result with the baseline.
+     *
+     * @param result The measured result.
+     * @return Descriptions of the regressions, empty if there are none.
+     */
+    List<String> regressions(LoadResult result) {
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, Double> metric : result.metrics().entrySet()) {
+            String expected = baseline.getProperty(metric.getKey());
+            if (expected == null) {
+                regressions.add(metric.getKey() + ": no baseline entry, record one with -Dloadtest.baseline=record");
+                continue;
+            }
+            double reference = Double.parseDouble(expected);
+            double actual = metric.getValue();
+            boolean higherIsBetter = metric.getKey().endsWith("throughput");
+            boolean regressed = higherIsBetter
+                    ? actual < reference * (1 - tolerance)
+                    : actual > reference * (1 + tolerance);
+            if (regressed) {
+                regressions.add(String.format("%s: %.2f, baseline %.2f", metric.getKey(), actual, reference));
+            }
+        }
+        return regressions;
+    }
+
+    /**
+     * Write results in the baseline format.
+     *
+     * @param results The measured results.
+     * @param file    Target file.
+     */
+    static void write(List<LoadResult> results, Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            for (LoadResult result : results) {
+                writer.write("# " + result.summary() + System.lineSeparator());
+                for (Map.Entry<String, Double> metric : result.metrics().entrySet()) {
+                    writer.write(String.format(Locale.ROOT, "%s=%.2f%n", metric.getKey(), metric.getValue()));
+                }
+            }
+        }
+    }
+}
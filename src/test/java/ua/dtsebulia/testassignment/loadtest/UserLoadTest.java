@@ -0,0 +1,113 @@
+package ua.dtsebulia.testassignment.loadtest;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Load test of the REST layer against an embedded database.
+ * <p>
+ * Run with {@code mvn -Pload-test test}. Sizes can be overridden with the loadtest.users, loadtest.operations,
+ * loadtest.threads and loadtest.tolerance system properties. Results are printed and written to
+ * target/loadtest/results.properties (or the file named by loadtest.results), and the build fails if a workload
+ * regressed against src/test/resources/loadtest/baseline.properties or has no entry there. With
+ * {@code -Dloadtest.baseline=record} the results replace the stored baseline instead of being checked, with
+ * {@code -Dloadtest.baseline=off} they are only reported.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class UserLoadTest {
+
+    private static final int USERS = Integer.getInteger("loadtest.users", 1_000_000);
+    private static final int OPERATIONS = Integer.getInteger("loadtest.operations", 200_000);
+    private static final int THREADS = Integer.getInteger("loadtest.threads", 32);
+    private static final double TOLERANCE = Double.parseDouble(System.getProperty("loadtest.tolerance", "0.2"));
+    private static final long SEED = Long.getLong("loadtest.seed", 42);
+    private static final Path RESULTS = Path.of(System.getProperty("loadtest.results", "target/loadtest/results.properties"));
+    private static final String BASELINE_MODE = System.getProperty("loadtest.baseline", "check");
+
+    private final List<LoadResult> results = new ArrayList<>();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private LoadDriver loadDriver;
+    private PerformanceBaseline baseline;
+
+    @BeforeAll
+    public void setUp() throws Exception {
+        new UserSeeder(jdbcTemplate).seed(USERS);
+        loadDriver = new LoadDriver(
+                HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build(),
+                "http://localhost:" + port,
+                USERS,
+                SEED
+        );
+        baseline = new PerformanceBaseline(TOLERANCE);
+
+        // Warm up the JIT and the connection pools before anything is measured.
+        loadDriver.run(Workload.READ_HEAVY, OPERATIONS / 10, THREADS, "warmup");
+    }
+
+    @AfterAll
+    public void tearDown() throws Exception {
+        PerformanceBaseline.write(results, RESULTS);
+        if ("record".equals(BASELINE_MODE)) {
+            PerformanceBaseline.write(results, PerformanceBaseline.SOURCE);
+        }
+    }
+
+    @Test
+    @Order(1)
+    public void testReadHeavy() throws Exception {
+        runAndCheck(Workload.READ_HEAVY);
+    }
+
+    @Test
+    @Order(2)
+    public void testSignupSpike() throws Exception {
+        runAndCheck(Workload.SIGNUP_SPIKE);
+    }
+
+    @Test
+    @Order(3)
+    public void testRangeScanHeavy() throws Exception {
+        runAndCheck(Workload.RANGE_SCAN_HEAVY);
+    }
+
+    private void runAndCheck(Workload workload) throws Exception {
+        LoadResult result = loadDriver.run(workload, OPERATIONS, THREADS, workload.name().toLowerCase());
+        results.add(result);
+        System.out.println(result.summary());
+
+        assertEquals(0, result.errors(), workload + " had server errors");
+        if ("check".equals(BASELINE_MODE)) {
+            List<String> regressions = baseline.regressions(result);
+            assertTrue(regressions.isEmpty(), workload + " regressed against the baseline: " + regressions);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package ua.dtsebulia.testassignment.loadtest;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bulk inserts a deterministic population of users, bypassing the REST layer.
+ * <p>
+ * User i gets the email user{i}@example.com and a date of birth spread evenly over {@link #BIRTH_DAYS} days
+ * starting at {@link #FIRST_BIRTH_DATE}, so every run of the load test works against the same data.
+ */
+class UserSeeder {
+
+    static final LocalDate FIRST_BIRTH_DATE = LocalDate.of(1940, 1, 1);
+    static final int BIRTH_DAYS = 65 * 365;
+
+    private static final int BATCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    UserSeeder(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Insert users until the table holds the requested number.
+     *
+     * @param users Number of users to seed.
+     */
+    void seed(int users) {
+        Integer existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user", Integer.class);
+        int from = existing == null ? 0 : existing;
+
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = from + 1; i <= users; i++) {
+            batch.add(new Object[]{
+                    "First" + i,
+                    "Last" + i,
+                    email(i),
+                    Timestamp.valueOf(FIRST_BIRTH_DATE.plusDays(i % BIRTH_DAYS).atStartOfDay()),
+                    "Address " + i,
+                    "+380" + (100_000_000 + i)
+            });
+            if (batch.size() == BATCH_SIZE || i == users) {
+                jdbcTemplate.batchUpdate(
+                        "INSERT INTO user (first_name, last_name, email, date_of_birth, address, phone_number) " +
+                                "VALUES (?, ?, ?, ?, ?, ?)",
+                        batch);
+                batch.clear();
+            }
+        }
+    }
+
+    static String email(int i) {
+        return "user" + i + "@example.com";
+    }
+}
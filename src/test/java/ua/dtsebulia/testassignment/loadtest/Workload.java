@@ -0,0 +1,66 @@
+package ua.dtsebulia.testassignment.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Request mix driven against the REST layer, as weights per 10 000 operations.
+ */
+enum Workload {
+
+    READ_HEAVY(Map.of(
+            Operation.GET_BY_ID, 9_000,
+            Operation.GET_BY_BIRTHDAY_RANGE, 700,
+            Operation.UPDATE, 240,
+            Operation.CREATE, 50,
+            Operation.DELETE, 9,
+            Operation.GET_ALL, 1
+    )),
+
+    SIGNUP_SPIKE(Map.of(
+            Operation.CREATE, 8_000,
+            Operation.CREATE_RETRY, 1_000,
+            Operation.GET_BY_ID, 1_000
+    )),
+
+    RANGE_SCAN_HEAVY(Map.of(
+            Operation.GET_BY_BIRTHDAY_RANGE, 8_000,
+            Operation.GET_BY_ID, 2_000
+    )),
+
+    SINGLE_ID_LOOKUPS(Map.of(
+            Operation.GET_BY_ID, 10_000
+    ));
+
+    private static final int TOTAL_WEIGHT = 10_000;
+
+    private final Operation[] slots = new Operation[TOTAL_WEIGHT];
+
+    Workload(Map<Operation, Integer> weights) {
+        Map<Operation, Integer> ordered = new EnumMap<>(weights);
+        int slot = 0;
+        for (Map.Entry<Operation, Integer> weight : ordered.entrySet()) {
+            for (int i = 0; i < weight.getValue(); i++) {
+                slots[slot++] = weight.getKey();
+            }
+        }
+        if (slot != TOTAL_WEIGHT) {
+            throw new IllegalStateException(name() + " weights must add up to " + TOTAL_WEIGHT);
+        }
+    }
+
+    Operation next(Random random) {
+        return slots[random.nextInt(TOTAL_WEIGHT)];
+    }
+
+    enum Operation {
+        GET_ALL,
+        GET_BY_ID,
+        GET_BY_BIRTHDAY_RANGE,
+        CREATE,
+        CREATE_RETRY,
+        UPDATE,
+        DELETE
+    }
+}
@@ -0,0 +1,24 @@
+package ua.dtsebulia.testassignment.logging;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PiiRedactionTest {
+
+    @Test
+    public void testEmailKeepsFirstCharacterAndDomain() {
+        assertEquals("j***@example.com", PiiRedaction.email("john.doe@example.com"));
+    }
+
+    @Test
+    public void testEmailWithoutLocalPartIsFullyMasked() {
+        assertEquals("***", PiiRedaction.email("not-an-email"));
+        assertEquals("***", PiiRedaction.email("@example.com"));
+    }
+
+    @Test
+    public void testNullEmail() {
+        assertNull(PiiRedaction.email(null));
+    }
+}
@@ -0,0 +1,71 @@
+package ua.dtsebulia.testassignment.ratelimit;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadShedderTest {
+
+    private final AtomicInteger pendingConnections = new AtomicInteger();
+    private final AtomicInteger shardPendingConnections = new AtomicInteger();
+
+    private LoadShedder loadShedder;
+
+    @BeforeEach
+    public void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        Gauge.builder("hikaricp.connections.pending", pendingConnections, AtomicInteger::get)
+                .tag("pool", "HikariPool-1")
+                .register(meterRegistry);
+        Gauge.builder("hikaricp.connections.pending", shardPendingConnections, AtomicInteger::get)
+                .tag("pool", "shard-shard-2")
+                .register(meterRegistry);
+        loadShedder = new LoadShedder(meterRegistry);
+        ReflectionTestUtils.setField(loadShedder, "maxInFlightRequests", 2);
+        ReflectionTestUtils.setField(loadShedder, "maxPendingConnections", 5.0);
+    }
+
+    @Test
+    public void testExpensiveRequestsAreShedWhileConnectionsArePending() {
+        pendingConnections.set(6);
+        loadShedder.samplePoolPressure();
+
+        assertFalse(loadShedder.tryAdmit(RequestCost.EXPENSIVE));
+        assertTrue(loadShedder.tryAdmit(RequestCost.CHEAP));
+    }
+
+    @Test
+    public void testSaturatedShardPoolIsSeen() {
+        shardPendingConnections.set(6);
+        loadShedder.samplePoolPressure();
+
+        assertFalse(loadShedder.tryAdmit(RequestCost.EXPENSIVE));
+    }
+
+    @Test
+    public void testSheddingStopsOnceThePoolRecovers() {
+        pendingConnections.set(6);
+        loadShedder.samplePoolPressure();
+        pendingConnections.set(0);
+        loadShedder.samplePoolPressure();
+
+        assertTrue(loadShedder.tryAdmit(RequestCost.EXPENSIVE));
+    }
+
+    @Test
+    public void testAllRequestsAreShedAboveInFlightLimit() {
+        assertTrue(loadShedder.tryAdmit(RequestCost.CHEAP));
+        assertTrue(loadShedder.tryAdmit(RequestCost.CHEAP));
+
+        assertFalse(loadShedder.tryAdmit(RequestCost.CHEAP));
+
+        loadShedder.release();
+        assertTrue(loadShedder.tryAdmit(RequestCost.CHEAP));
+    }
+}
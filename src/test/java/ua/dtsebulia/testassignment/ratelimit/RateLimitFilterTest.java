@@ -0,0 +1,70 @@
+package ua.dtsebulia.testassignment.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitFilterTest {
+
+    private static final String PROXY = "10.0.0.1";
+
+    private RateLimitFilter rateLimitFilter;
+
+    @BeforeEach
+    public void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RateLimiter rateLimiter = new RateLimiter(
+                new RateLimiter.Budget(10, 3),
+                new RateLimiter.Budget(1, 1),
+                100,
+                System::nanoTime
+        );
+        rateLimitFilter = new RateLimitFilter(rateLimiter, new LoadShedder(meterRegistry), meterRegistry);
+        ReflectionTestUtils.setField(rateLimitFilter, "rateLimitEnabled", true);
+        ReflectionTestUtils.setField(rateLimitFilter, "apiKeys", Set.of());
+        ReflectionTestUtils.setField(rateLimitFilter, "trustedProxies", Set.of(PROXY, "10.0.0.2"));
+        ReflectionTestUtils.setField(rateLimitFilter, "loadSheddingEnabled", false);
+    }
+
+    @Test
+    public void testProxiedClientsHaveSeparateBudgets() throws Exception {
+        assertEquals(200, getAllUsers(PROXY, "203.0.113.1").getStatus());
+        assertEquals(200, getAllUsers(PROXY, "203.0.113.2").getStatus());
+
+        assertEquals(429, getAllUsers(PROXY, "203.0.113.1").getStatus());
+    }
+
+    @Test
+    public void testClientIsLastUntrustedHop() throws Exception {
+        assertEquals(200, getAllUsers(PROXY, "198.51.100.7, 203.0.113.1, 10.0.0.2").getStatus());
+
+        // Only the entry added by a trusted proxy counts, a forged first entry doesn't give a new budget.
+        assertEquals(429, getAllUsers(PROXY, "198.51.100.8, 203.0.113.1").getStatus());
+    }
+
+    @Test
+    public void testForwardedForFromUntrustedAddressIsIgnored() throws Exception {
+        assertEquals(200, getAllUsers("203.0.113.9", "198.51.100.7").getStatus());
+
+        assertEquals(429, getAllUsers("203.0.113.9", "198.51.100.8").getStatus());
+    }
+
+    // Helper method to send an expensive request through the filter.
+
+    private MockHttpServletResponse getAllUsers(String remoteAddress, String forwardedFor) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users");
+        request.setRemoteAddr(remoteAddress);
+        request.addHeader(RateLimitFilter.FORWARDED_FOR_HEADER, forwardedFor);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        rateLimitFilter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,88 @@
+package ua.dtsebulia.testassignment.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    private static final String ADDRESS = "10.0.0.1";
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    public void setUp() {
+        rateLimiter = new RateLimiter(
+                new RateLimiter.Budget(10, 3),
+                new RateLimiter.Budget(1, 1),
+                2,
+                clock::get
+        );
+    }
+
+    @Test
+    public void testBurstIsAllowedThenLimited() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiter.tryAcquire("client", ADDRESS, RequestCost.CHEAP));
+        }
+
+        long waitNanos = rateLimiter.tryAcquire("client", ADDRESS, RequestCost.CHEAP);
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), waitNanos);
+    }
+
+    @Test
+    public void testPermitsRefillOverTime() {
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire("client", ADDRESS, RequestCost.CHEAP);
+        }
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+
+        assertEquals(0, rateLimiter.tryAcquire("client", ADDRESS, RequestCost.CHEAP));
+        assertTrue(rateLimiter.tryAcquire("client", ADDRESS, RequestCost.CHEAP) > 0);
+    }
+
+    @Test
+    public void testCostClassesHaveSeparateBudgets() {
+        assertEquals(0, rateLimiter.tryAcquire("client", ADDRESS, RequestCost.EXPENSIVE));
+        assertTrue(rateLimiter.tryAcquire("client", ADDRESS, RequestCost.EXPENSIVE) > 0);
+
+        assertEquals(0, rateLimiter.tryAcquire("client", ADDRESS, RequestCost.CHEAP));
+    }
+
+    @Test
+    public void testClientsHaveSeparateBudgets() {
+        assertEquals(0, rateLimiter.tryAcquire("first", ADDRESS, RequestCost.EXPENSIVE));
+        assertTrue(rateLimiter.tryAcquire("first", ADDRESS, RequestCost.EXPENSIVE) > 0);
+
+        assertEquals(0, rateLimiter.tryAcquire("second", ADDRESS, RequestCost.EXPENSIVE));
+    }
+
+    @Test
+    public void testClientsAboveLimitFallBackToOverflowBucketByAddress() {
+        rateLimiter.tryAcquire("first", ADDRESS, RequestCost.EXPENSIVE);
+        rateLimiter.tryAcquire("second", ADDRESS, RequestCost.EXPENSIVE);
+
+        assertEquals(0, rateLimiter.tryAcquire("third", "10.0.0.3", RequestCost.EXPENSIVE));
+        assertTrue(rateLimiter.tryAcquire("fourth", "10.0.0.3", RequestCost.EXPENSIVE) > 0);
+        assertEquals(0, rateLimiter.tryAcquire("fifth", "10.0.0.5", RequestCost.EXPENSIVE));
+        assertEquals(4, rateLimiter.trackedClients(RequestCost.EXPENSIVE));
+    }
+
+    @Test
+    public void testIdleBucketsAreRemoved() {
+        rateLimiter.tryAcquire("client", ADDRESS, RequestCost.CHEAP);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        rateLimiter.removeIdleBuckets();
+
+        assertEquals(0, rateLimiter.trackedClients(RequestCost.CHEAP));
+    }
+}
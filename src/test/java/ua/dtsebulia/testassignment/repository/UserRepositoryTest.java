@@ -0,0 +1,118 @@
+package ua.dtsebulia.testassignment.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import ua.dtsebulia.testassignment.model.User;
+import ua.dtsebulia.testassignment.service.UserLookupCoalescer;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the user lookups against the embedded database of the loadtest profile, which like production has
+ * open-in-view turned off.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("loadtest")
+class UserRepositoryTest {
+
+    private static final int USERS = 3;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final List<User> users = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        for (int i = 0; i < USERS; i++) {
+            users.add(userRepository.save(user("multiload-" + i + "@example.com")));
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        userRepository.deleteAll(users);
+    }
+
+    @Test
+    public void testMultiLoadOutsideTransaction() {
+        List<Integer> ids = new ArrayList<>(userIds());
+        ids.add(Integer.MAX_VALUE);
+
+        List<User> loaded = new ArrayList<>(userRepository.multiLoadById(ids));
+        loaded.sort(Comparator.comparing(User::getId));
+
+        assertEquals(userIds(), loaded.stream().map(User::getId).toList());
+        assertEquals("multiload-0@example.com", loaded.get(0).getEmail());
+    }
+
+    @Test
+    public void testMultiLoadedUsersAreDetached() {
+        List<User> loaded = transactionTemplate.execute(status -> {
+            List<User> result = userRepository.multiLoadById(userIds());
+            assertFalse(result.stream().anyMatch(entityManager::contains));
+            return result;
+        });
+
+        assertEquals(USERS, loaded.size());
+    }
+
+    @Test
+    public void testCoalescedLookupsFromConcurrentThreads() throws Exception {
+        UserLookupCoalescer coalescer = new UserLookupCoalescer(
+                userRepository, new SimpleMeterRegistry(), true, Duration.ofSeconds(1), USERS);
+        ExecutorService executor = Executors.newFixedThreadPool(USERS);
+        try {
+            List<Future<Optional<User>>> lookups = new ArrayList<>();
+            for (Integer id : userIds()) {
+                lookups.add(executor.submit(() -> coalescer.findById(id)));
+            }
+
+            for (int i = 0; i < USERS; i++) {
+                Optional<User> user = lookups.get(i).get(5, TimeUnit.SECONDS);
+                assertTrue(user.isPresent());
+                assertEquals(users.get(i).getEmail(), user.get().getEmail());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Helper methods to create the users looked up.
+
+    private List<Integer> userIds() {
+        return users.stream().map(User::getId).toList();
+    }
+
+    private static User user(String email) {
+        Date dateOfBirth = Date.from(LocalDate.of(1990, 1, 1).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        return new User(null, "First", "Last", email, dateOfBirth, null, null);
+    }
+}
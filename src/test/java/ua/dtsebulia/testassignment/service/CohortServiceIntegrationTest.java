@@ -0,0 +1,149 @@
+package ua.dtsebulia.testassignment.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+import ua.dtsebulia.testassignment.model.AgeBracket;
+import ua.dtsebulia.testassignment.model.User;
+import ua.dtsebulia.testassignment.repository.UserRepository;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the cohort bookkeeping against the embedded database of the loadtest profile, including the native count
+ * upsert, the rollover locks and the initial build.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles("loadtest")
+class CohortServiceIntegrationTest {
+
+    // A Thursday.
+    private static final LocalDate TODAY = LocalDate.of(2023, 6, 15);
+
+    @Autowired
+    private CohortService cohortService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Integer> userIds = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        awaitStartupRollover();
+        ZoneId zone = ZoneId.systemDefault();
+        setClock(Clock.fixed(TODAY.atStartOfDay(zone).toInstant(), zone));
+        setLastRollover(TODAY.minusDays(1));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        userIds.forEach(userService::deleteUser);
+        setClock(Clock.systemDefaultZone());
+        setLastRollover(LocalDate.now());
+    }
+
+    @Test
+    public void testCountsFollowUserChangesAndRollover() {
+        long turning25 = count(AgeBracket.AGE_18_24, 6);
+        long advanced = count(AgeBracket.AGE_25_34, 6);
+        long updatedFrom = count(AgeBracket.AGE_25_34, 3);
+        long updatedTo = count(AgeBracket.AGE_35_44, 3);
+        long deleted = count(AgeBracket.AGE_45_54, 1);
+
+        // Turns 25 today, which hasn't been rolled over yet.
+        createUser("cohort-birthday@example.com", LocalDate.of(1998, 6, 15));
+        User moved = createUser("cohort-moved@example.com", LocalDate.of(1990, 3, 10));
+        User removed = createUser("cohort-removed@example.com", LocalDate.of(1970, 1, 20));
+
+        assertEquals(turning25 + 1, count(AgeBracket.AGE_18_24, 6));
+        assertEquals(updatedFrom + 1, count(AgeBracket.AGE_25_34, 3));
+        assertEquals(deleted + 1, count(AgeBracket.AGE_45_54, 1));
+
+        moved.setDateOfBirth(date(LocalDate.of(1980, 3, 10)));
+        userService.updateUser(moved.getId(), moved);
+        userService.deleteUser(removed.getId());
+        userIds.remove(removed.getId());
+
+        assertEquals(updatedFrom, count(AgeBracket.AGE_25_34, 3));
+        assertEquals(updatedTo + 1, count(AgeBracket.AGE_35_44, 3));
+        assertEquals(deleted, count(AgeBracket.AGE_45_54, 1));
+
+        cohortService.rollover();
+
+        assertEquals(turning25, count(AgeBracket.AGE_18_24, 6));
+        assertEquals(advanced + 1, count(AgeBracket.AGE_25_34, 6));
+        assertEquals(TODAY, jdbcTemplate.queryForObject(
+                "SELECT last_rollover_date FROM cohort_rollover", LocalDate.class));
+    }
+
+    @Test
+    public void testFirstRolloverBuildsCohortsFromExistingUsers() {
+        User user = userRepository.save(new User(null, "First", "Last", "cohort-existing@example.com",
+                date(LocalDate.of(1990, 3, 10)), null, null));
+        userIds.add(user.getId());
+        jdbcTemplate.update("DELETE FROM user_cohort_entry");
+        jdbcTemplate.update("DELETE FROM cohort_count");
+        jdbcTemplate.update("DELETE FROM cohort_rollover");
+
+        cohortService.rollover();
+
+        assertEquals(33, jdbcTemplate.queryForObject(
+                "SELECT age FROM user_cohort_entry WHERE user_id = ?", Integer.class, user.getId()));
+        assertEquals(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM user", Long.class),
+                jdbcTemplate.queryForObject("SELECT SUM(user_count) FROM cohort_count", Long.class));
+    }
+
+    // Helper methods to set up the rollover state and read the counts.
+
+    private void awaitStartupRollover() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (jdbcTemplate.queryForObject("SELECT COUNT(*) FROM cohort_rollover", Integer.class) == 0) {
+            assertTrue(System.currentTimeMillis() < deadline, "Startup rollover did not finish");
+            Thread.sleep(50);
+        }
+    }
+
+    private void setClock(Clock clock) {
+        ReflectionTestUtils.setField(AopTestUtils.getUltimateTargetObject(cohortService), "clock", clock);
+    }
+
+    private void setLastRollover(LocalDate date) {
+        jdbcTemplate.update("DELETE FROM cohort_rollover");
+        jdbcTemplate.update("INSERT INTO cohort_rollover (id, last_rollover_date) VALUES (1, ?)", date);
+    }
+
+    private User createUser(String email, LocalDate dateOfBirth) {
+        User user = userService.createUser(new User(null, "First", "Last", email, date(dateOfBirth), null, null));
+        userIds.add(user.getId());
+        return user;
+    }
+
+    private long count(AgeBracket bracket, int birthMonth) {
+        return jdbcTemplate.queryForList("SELECT user_count FROM cohort_count WHERE bracket = ? AND birth_month = ?",
+                Long.class, bracket.name(), birthMonth).stream().findFirst().orElse(0L);
+    }
+
+    private static Date date(LocalDate date) {
+        return Date.from(date.atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -0,0 +1,250 @@
+package ua.dtsebulia.testassignment.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+import ua.dtsebulia.testassignment.model.AgeBracket;
+import ua.dtsebulia.testassignment.model.CohortRollover;
+import ua.dtsebulia.testassignment.model.User;
+import ua.dtsebulia.testassignment.model.UserCohortEntry;
+import ua.dtsebulia.testassignment.repository.CohortCountRepository;
+import ua.dtsebulia.testassignment.repository.CohortRolloverRepository;
+import ua.dtsebulia.testassignment.repository.UserCohortEntryRepository;
+import ua.dtsebulia.testassignment.repository.UserRepository;
+import ua.dtsebulia.testassignment.tenant.TenantFanOut;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CohortServiceTest {
+
+    // A Thursday.
+    private static final LocalDate TODAY = LocalDate.of(2023, 6, 15);
+
+    @Mock
+    private UserCohortEntryRepository userCohortEntryRepository;
+
+    @Mock
+    private CohortCountRepository cohortCountRepository;
+
+    @Mock
+    private CohortRolloverRepository cohortRolloverRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private TenantFanOut tenantFanOut;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private TaskScheduler taskScheduler;
+
+    @InjectMocks
+    private CohortService cohortService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        ZoneId zone = ZoneId.systemDefault();
+        ReflectionTestUtils.setField(cohortService, "clock", Clock.fixed(TODAY.atStartOfDay(zone).toInstant(), zone));
+        ReflectionTestUtils.setField(cohortService, "minimumAge", 18);
+    }
+
+    @Test
+    public void testCreatedUserIsCounted() {
+        givenLastRollover(TODAY);
+
+        cohortService.onUserCreated(user(1, LocalDate.of(1993, 3, 10)));
+
+        verify(userCohortEntryRepository).save(new UserCohortEntry(1, 3, 10, 30, AgeBracket.AGE_25_34));
+        verify(cohortCountRepository).addToCount("AGE_25_34", 3, 1L);
+        verify(cohortRolloverRepository, never()).findForUpdate(any());
+    }
+
+    @Test
+    public void testCreatedUserWithBirthdayNotRolledOverYetWaitsForRollover() {
+        givenLastRollover(TODAY.minusDays(1));
+        when(cohortRolloverRepository.findForUpdate(CohortRollover.ID))
+                .thenReturn(Optional.of(new CohortRollover(CohortRollover.ID, TODAY)));
+
+        cohortService.onUserCreated(user(1, LocalDate.of(2005, 6, 15)));
+
+        verify(userCohortEntryRepository).save(new UserCohortEntry(1, 6, 15, 18, AgeBracket.AGE_18_24));
+        verify(cohortCountRepository).addToCount("AGE_18_24", 6, 1L);
+    }
+
+    @Test
+    public void testUpdatedUserMovesToNewCohort() {
+        givenLastRollover(TODAY);
+        givenEntry(new UserCohortEntry(1, 3, 10, 30, AgeBracket.AGE_25_34));
+
+        cohortService.onUserUpdated(user(1, LocalDate.of(2000, 1, 20)));
+
+        verify(userCohortEntryRepository).save(new UserCohortEntry(1, 1, 20, 23, AgeBracket.AGE_18_24));
+        verify(cohortCountRepository).addToCount("AGE_25_34", 3, -1L);
+        verify(cohortCountRepository).addToCount("AGE_18_24", 1, 1L);
+        verify(cohortRolloverRepository, never()).findForUpdate(any());
+    }
+
+    @Test
+    public void testUpdatedUserWithPreviousBirthdayNotRolledOverYetWaitsForRollover() {
+        givenLastRollover(TODAY.minusDays(1));
+        when(cohortRolloverRepository.findForUpdate(CohortRollover.ID))
+                .thenReturn(Optional.of(new CohortRollover(CohortRollover.ID, TODAY)));
+        // The rollover that held the lock advanced the previous entry to the next bracket.
+        givenEntry(new UserCohortEntry(1, 6, 15, 25, AgeBracket.AGE_25_34));
+
+        cohortService.onUserUpdated(user(1, LocalDate.of(2000, 1, 20)));
+
+        verify(cohortCountRepository).addToCount("AGE_25_34", 6, -1L);
+        verify(cohortCountRepository).addToCount("AGE_18_24", 1, 1L);
+    }
+
+    @Test
+    public void testUpdatedUserInSameCohortLeavesCountsAlone() {
+        givenLastRollover(TODAY);
+        givenEntry(new UserCohortEntry(1, 3, 10, 30, AgeBracket.AGE_25_34));
+
+        cohortService.onUserUpdated(user(1, LocalDate.of(1993, 3, 20)));
+
+        verify(cohortCountRepository, never()).addToCount(anyString(), anyInt(), anyLong());
+    }
+
+    @Test
+    public void testDeletedUserIsUncounted() {
+        givenLastRollover(TODAY);
+        UserCohortEntry entry = new UserCohortEntry(1, 3, 10, 30, AgeBracket.AGE_25_34);
+        givenEntry(entry);
+
+        cohortService.onUserDeleted(user(1, LocalDate.of(1993, 3, 10)));
+
+        verify(userCohortEntryRepository).delete(entry);
+        verify(cohortCountRepository).addToCount("AGE_25_34", 3, -1L);
+        verify(cohortRolloverRepository, never()).findForUpdate(any());
+    }
+
+    @Test
+    public void testRolloverMovesUserToNextBracket() {
+        CohortRollover state = new CohortRollover(CohortRollover.ID, TODAY.minusDays(1));
+        when(cohortRolloverRepository.findForRollover(CohortRollover.ID)).thenReturn(Optional.of(state));
+        UserCohortEntry entry = new UserCohortEntry(1, 6, 15, 24, AgeBracket.AGE_18_24);
+        when(userCohortEntryRepository.findByBirthMonthAndBirthDay(6, 15)).thenReturn(List.of(entry));
+
+        cohortService.rolloverDay(TODAY);
+
+        assertEquals(25, entry.getAge());
+        assertEquals(AgeBracket.AGE_25_34, entry.getBracket());
+        assertEquals(TODAY, state.getLastRolloverDate());
+        verify(cohortCountRepository).addToCount("AGE_18_24", 6, -1L);
+        verify(cohortCountRepository).addToCount("AGE_25_34", 6, 1L);
+    }
+
+    @Test
+    public void testUsersTurningMinimumAgeOnBothSidesOfLastRollover() {
+        when(cohortRolloverRepository.findById(CohortRollover.ID))
+                .thenReturn(Optional.of(new CohortRollover(CohortRollover.ID, TODAY)));
+        // Wednesday has been rolled over, Friday hasn't.
+        givenCohortEntry(18, MonthDay.of(6, 14), 1);
+        givenCohortEntry(17, MonthDay.of(6, 16), 2);
+        givenCohortEntry(17, MonthDay.of(6, 14), 3);
+        givenCohortEntry(18, MonthDay.of(6, 16), 4);
+        when(userRepository.findAllById(List.of(1, 2)))
+                .thenReturn(List.of(user(2, LocalDate.of(2005, 6, 16)), user(1, LocalDate.of(2005, 6, 14))));
+
+        List<User> users = cohortService.getUsersTurningMinimumAgeThisWeek();
+
+        assertEquals(List.of(1, 2), users.stream().map(User::getId).toList());
+    }
+
+    @Test
+    public void testBirthdaysCelebratedOnRegularDay() {
+        assertEquals(List.of(MonthDay.of(6, 15)), CohortService.birthdaysCelebratedOn(LocalDate.of(2023, 6, 15)));
+    }
+
+    @Test
+    public void testLeapDayBirthdaysMoveToMarchFirstInNonLeapYears() {
+        assertEquals(List.of(MonthDay.of(2, 29), MonthDay.of(3, 1)),
+                CohortService.birthdaysCelebratedOn(LocalDate.of(2023, 3, 1)));
+        assertEquals(List.of(MonthDay.of(3, 1)), CohortService.birthdaysCelebratedOn(LocalDate.of(2024, 3, 1)));
+        assertEquals(List.of(MonthDay.of(2, 29)), CohortService.birthdaysCelebratedOn(LocalDate.of(2024, 2, 29)));
+    }
+
+    @Test
+    public void testAgeMatchesRollover() {
+        LocalDate leapDayBirth = LocalDate.of(2000, 2, 29);
+
+        assertEquals(22, CohortService.ageOn(leapDayBirth, LocalDate.of(2023, 2, 28)));
+        assertEquals(23, CohortService.ageOn(leapDayBirth, LocalDate.of(2023, 3, 1)));
+        assertEquals(24, CohortService.ageOn(leapDayBirth, LocalDate.of(2024, 2, 29)));
+        assertEquals(17, CohortService.ageOn(LocalDate.of(2005, 6, 15), LocalDate.of(2023, 6, 14)));
+        assertEquals(18, CohortService.ageOn(LocalDate.of(2005, 6, 15), LocalDate.of(2023, 6, 15)));
+    }
+
+    @Test
+    public void testAgeBrackets() {
+        assertEquals(AgeBracket.UNDER_18, AgeBracket.of(17));
+        assertEquals(AgeBracket.AGE_18_24, AgeBracket.of(18));
+        assertEquals(AgeBracket.AGE_18_24, AgeBracket.of(24));
+        assertEquals(AgeBracket.AGE_25_34, AgeBracket.of(25));
+        assertEquals(AgeBracket.AGE_65_PLUS, AgeBracket.of(90));
+        assertEquals(AgeBracket.AGE_25_34, AgeBracket.fromName("age_25_34"));
+    }
+
+    // Helper methods to build users and stub the cohort tables.
+
+    private void givenLastRollover(LocalDate date) {
+        when(cohortRolloverRepository.findLastRolloverDate(CohortRollover.ID)).thenReturn(Optional.of(date));
+    }
+
+    private void givenEntry(UserCohortEntry entry) {
+        UserCohortEntryRepository.Birthday birthday = new UserCohortEntryRepository.Birthday() {
+            @Override
+            public int getBirthMonth() {
+                return entry.getBirthMonth();
+            }
+
+            @Override
+            public int getBirthDay() {
+                return entry.getBirthDay();
+            }
+        };
+        when(userCohortEntryRepository.findBirthday(entry.getUserId())).thenReturn(Optional.of(birthday));
+        when(userCohortEntryRepository.findForUpdate(entry.getUserId())).thenReturn(Optional.of(entry));
+    }
+
+    private void givenCohortEntry(int age, MonthDay birthday, int userId) {
+        when(userCohortEntryRepository.findByAgeAndBirthMonthAndBirthDay(
+                age, birthday.getMonthValue(), birthday.getDayOfMonth()))
+                .thenReturn(List.of(new UserCohortEntry(userId, birthday.getMonthValue(), birthday.getDayOfMonth(),
+                        age, AgeBracket.of(age))));
+    }
+
+    private static User user(int id, LocalDate dateOfBirth) {
+        User user = new User();
+        user.setId(id);
+        user.setDateOfBirth(Date.from(dateOfBirth.atStartOfDay(ZoneId.systemDefault()).toInstant()));
+        return user;
+    }
+}
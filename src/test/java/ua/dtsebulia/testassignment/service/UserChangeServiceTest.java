@@ -0,0 +1,166 @@
+package ua.dtsebulia.testassignment.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ua.dtsebulia.testassignment.model.UserChange;
+import ua.dtsebulia.testassignment.model.UserChangeType;
+import ua.dtsebulia.testassignment.repository.UserChangeRepository;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+class UserChangeServiceTest {
+
+    @Mock
+    private UserChangeRepository userChangeRepository;
+
+    @Mock
+    private ObjectMapper objectMapper;
+
+    @InjectMocks
+    private UserChangeService userChangeService;
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        ReflectionTestUtils.setField(userChangeService, "maxBatchSize", 100);
+        ReflectionTestUtils.setField(userChangeService, "commitGracePeriod", Duration.ofSeconds(10));
+        ReflectionTestUtils.setField(userChangeService, "sendTimeout", Duration.ofSeconds(10));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        userChangeService.shutdown();
+    }
+
+    @Test
+    public void testLaterChangeCommittedFirstIsHeldBack() {
+        // Change 2 committed while change 1 is still in an open transaction.
+        givenChangesAfter(0, change(2, new Date()), change(3, new Date()));
+
+        assertTrue(userChangeService.getChangesSince(0).isEmpty());
+    }
+
+    @Test
+    public void testChangesAreServedUpToTheFirstGap() {
+        givenChangesAfter(0, change(1, new Date()), change(2, new Date()), change(4, new Date()));
+
+        List<UserChange> changes = userChangeService.getChangesSince(0);
+
+        assertEquals(List.of(1L, 2L), sequenceNumbers(changes));
+    }
+
+    @Test
+    public void testOutOfOrderCommitsAreServedOnceTheGapIsFilled() {
+        givenChangesAfter(0, change(2, new Date()));
+        assertTrue(userChangeService.getChangesSince(0).isEmpty());
+
+        givenChangesAfter(0, change(1, new Date()), change(2, new Date()));
+
+        assertEquals(List.of(1L, 2L), sequenceNumbers(userChangeService.getChangesSince(0)));
+    }
+
+    @Test
+    public void testGapOlderThanGracePeriodIsSkipped() {
+        Date longAgo = new Date(System.currentTimeMillis() - Duration.ofMinutes(1).toMillis());
+        givenChangesAfter(0, change(2, longAgo), change(3, new Date()));
+
+        assertEquals(List.of(2L, 3L), sequenceNumbers(userChangeService.getChangesSince(0)));
+    }
+
+    @Test
+    public void testSlowStreamDoesNotHoldUpOthers() throws InterruptedException {
+        givenChangesAfter(0, change(1, new Date()));
+        CountDownLatch release = new CountDownLatch(1);
+        TestEmitter slow = new TestEmitter(release);
+        TestEmitter fast = new TestEmitter(new CountDownLatch(0));
+
+        userChangeService.streamChanges(0, slow);
+        assertTrue(slow.sending.await(5, TimeUnit.SECONDS));
+        userChangeService.streamChanges(0, fast);
+
+        assertTrue(fast.sent.await(5, TimeUnit.SECONDS));
+        assertEquals(1, slow.sent.getCount());
+        release.countDown();
+    }
+
+    @Test
+    public void testStreamThatFallsBehindIsClosed() throws InterruptedException {
+        ReflectionTestUtils.setField(userChangeService, "sendTimeout", Duration.ofMillis(50));
+        givenChangesAfter(0, change(1, new Date()));
+        CountDownLatch release = new CountDownLatch(1);
+        TestEmitter slow = new TestEmitter(release);
+
+        userChangeService.streamChanges(0, slow);
+        assertTrue(slow.sending.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        // Another subscriber makes the dispatcher look at the pending stream again.
+        userChangeService.streamChanges(0, new TestEmitter(new CountDownLatch(0)));
+        release.countDown();
+
+        assertTrue(slow.completed.await(5, TimeUnit.SECONDS));
+    }
+
+    // Helper methods to stub the change log.
+
+    private void givenChangesAfter(long since, UserChange... changes) {
+        when(userChangeRepository.findBySequenceNumberBetweenOrderBySequenceNumberAsc(
+                eq(since + 1), eq(Long.MAX_VALUE), any())).thenReturn(List.of(changes));
+    }
+
+    private static UserChange change(long sequenceNumber, Date changedAt) {
+        return new UserChange(sequenceNumber, 1, UserChangeType.UPDATED, changedAt, "{}");
+    }
+
+    private static List<Long> sequenceNumbers(List<UserChange> changes) {
+        return changes.stream().map(UserChange::getSequenceNumber).toList();
+    }
+
+    /**
+     * Emitter that holds every send until released.
+     */
+    private static class TestEmitter extends SseEmitter {
+
+        private final CountDownLatch release;
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch sent = new CountDownLatch(1);
+        private final CountDownLatch completed = new CountDownLatch(1);
+
+        private TestEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            sending.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException();
+            }
+            sent.countDown();
+        }
+
+        @Override
+        public void complete() {
+            completed.countDown();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package ua.dtsebulia.testassignment.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import ua.dtsebulia.testassignment.model.User;
+import ua.dtsebulia.testassignment.repository.UserRepository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserLookupCoalescerTest {
+
+    private static final int CALLERS = 8;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+    @BeforeEach
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        // Every ID below 100 exists.
+        when(userRepository.multiLoadById(anyCollection())).thenAnswer(invocation -> {
+            Collection<Integer> ids = invocation.getArgument(0);
+            return ids.stream().filter(id -> id < 100).map(UserLookupCoalescerTest::user).toList();
+        });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testConcurrentLookupsShareOneQuery() throws Exception {
+        UserLookupCoalescer coalescer = coalescer(Duration.ofSeconds(1), CALLERS);
+
+        List<Optional<User>> results = lookUpConcurrently(coalescer, 1, 2, 3, 4, 5, 6, 7, 8);
+
+        for (int i = 0; i < CALLERS; i++) {
+            assertEquals(i + 1, results.get(i).orElseThrow().getId());
+        }
+        verify(userRepository, times(1)).multiLoadById(anyCollection());
+        assertEquals(1, meterRegistry.get("userlookup.coalescing.batch.size").summary().count());
+        assertEquals(CALLERS, meterRegistry.get("userlookup.coalescing.batch.size").summary().totalAmount());
+    }
+
+    @Test
+    public void testFullBatchIsLoadedBeforeWindowEnds() throws Exception {
+        UserLookupCoalescer coalescer = coalescer(Duration.ofMinutes(1), 2);
+
+        // Would time out if the batch waited for the whole window.
+        List<Optional<User>> results = lookUpConcurrently(coalescer, 1, 2);
+
+        assertTrue(results.get(0).isPresent());
+        assertTrue(results.get(1).isPresent());
+    }
+
+    @Test
+    public void testMissingUserIsEmpty() {
+        UserLookupCoalescer coalescer = coalescer(Duration.ofMillis(1), 10);
+
+        assertTrue(coalescer.findById(100).isEmpty());
+        assertEquals(42, coalescer.findById(42).orElseThrow().getId());
+    }
+
+    @Test
+    public void testFailureIsPropagatedToEveryCaller() {
+        when(userRepository.multiLoadById(anyCollection())).thenThrow(new IllegalStateException("database down"));
+        UserLookupCoalescer coalescer = coalescer(Duration.ofMillis(1), 10);
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> coalescer.findById(1));
+
+        assertEquals("database down", ex.getMessage());
+    }
+
+    // Helper methods to build the coalescer and to run lookups that arrive together.
+
+    private UserLookupCoalescer coalescer(Duration window, int maxBatchSize) {
+        return new UserLookupCoalescer(userRepository, meterRegistry, true, window, maxBatchSize);
+    }
+
+    private List<Optional<User>> lookUpConcurrently(UserLookupCoalescer coalescer, Integer... ids) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Optional<User>>> futures = new ArrayList<>();
+        for (Integer id : ids) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return coalescer.findById(id);
+            }));
+        }
+        start.countDown();
+
+        List<Optional<User>> results = new ArrayList<>();
+        for (Future<Optional<User>> future : futures) {
+            results.add(future.get(10, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+
+    private static User user(Integer id) {
+        User user = new User();
+        user.setId(id);
+        return user;
+    }
+}
@@ -2,6 +2,7 @@ package ua.dtsebulia.testassignment.service;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
@@ -9,17 +10,26 @@ import org.springframework.test.util.ReflectionTestUtils;
 import ua.dtsebulia.testassignment.exception.MinimumAgeException;
 import ua.dtsebulia.testassignment.exception.UserAlreadyExistsException;
 import ua.dtsebulia.testassignment.exception.UserNotFoundException;
+import ua.dtsebulia.testassignment.model.TenantUser;
 import ua.dtsebulia.testassignment.model.User;
+import ua.dtsebulia.testassignment.model.UserChangeType;
 import ua.dtsebulia.testassignment.repository.UserRepository;
+import ua.dtsebulia.testassignment.tenant.TenantContext;
+import ua.dtsebulia.testassignment.tenant.TenantFanOut;
 
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class UserServiceTest {
@@ -27,6 +37,18 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private UserChangeService userChangeService;
+
+    @Mock
+    private TenantFanOut tenantFanOut;
+
+    @Mock
+    private CohortService cohortService;
+
+    @Mock
+    private UserLookupCoalescer userLookupCoalescer;
+
     @InjectMocks
     private UserService userService;
 
@@ -45,6 +67,25 @@ class UserServiceTest {
         assertEquals(users, result);
     }
 
+    @Test
+    public void testGetAllUsersOfAllTenantsTagsUsersWithTheirTenant() {
+        User user = new User();
+        user.setId(1);
+        when(userRepository.findAll()).thenReturn(List.of(user));
+        when(tenantFanOut.query(any(), any())).thenAnswer(invocation -> {
+            TenantContext.setTenantId("beta");
+            try {
+                return ((Supplier<?>) invocation.getArgument(0)).get();
+            } finally {
+                TenantContext.clear();
+            }
+        });
+
+        List<TenantUser> result = userService.getAllUsersOfAllTenants();
+
+        assertEquals(List.of(new TenantUser("beta", user)), result);
+    }
+
     @Test
     public void testGetUserById() {
         Integer userId = 1;
@@ -57,6 +98,20 @@ class UserServiceTest {
         assertEquals(user, result);
     }
 
+    @Test
+    public void testGetUserByIdCoalesced() {
+        Integer userId = 1;
+        User user = new User();
+        user.setId(userId);
+        when(userLookupCoalescer.isEnabled()).thenReturn(true);
+        when(userLookupCoalescer.findById(userId)).thenReturn(Optional.of(user));
+
+        User result = userService.getUserById(userId);
+
+        assertEquals(user, result);
+        verify(userRepository, never()).findById(userId);
+    }
+
     @Test
     public void testGetUserByIdNotFound() {
         Integer userId = 1;
@@ -174,5 +229,44 @@ class UserServiceTest {
         assertThrows(UserNotFoundException.class, () -> userService.deleteUser(userId));
     }
 
+    @Test
+    public void testCreateUserRecordsChange() throws ParseException {
+        User newUser = new User();
+        newUser.setEmail("john.doe@example.com");
+        newUser.setDateOfBirth(new SimpleDateFormat("yyyy-MM-dd").parse("1990-01-01"));
+
+        when(userRepository.findByEmail(newUser.getEmail())).thenReturn(Optional.empty());
+        when(userRepository.save(any(User.class))).thenReturn(newUser);
+
+        userService.createUser(newUser);
 
-}
\ No newline at end of file
+        InOrder inOrder = inOrder(cohortService, userChangeService);
+        inOrder.verify(cohortService).onUserCreated(newUser);
+        inOrder.verify(userChangeService).record(UserChangeType.CREATED, newUser);
+    }
+
+    @Test
+    public void testDeleteUserRecordsChange() {
+        Integer userId = 1;
+        User existingUser = new User();
+        existingUser.setId(userId);
+        when(userRepository.findById(userId)).thenReturn(Optional.of(existingUser));
+
+        userService.deleteUser(userId);
+
+        InOrder inOrder = inOrder(cohortService, userChangeService);
+        inOrder.verify(cohortService).onUserDeleted(existingUser);
+        inOrder.verify(userChangeService).record(UserChangeType.DELETED, existingUser);
+    }
+
+    @Test
+    public void testFailedUpdateDoesNotRecordChange() {
+        Integer userId = 1;
+        when(userRepository.findById(userId)).thenReturn(Optional.empty());
+
+        assertThrows(UserNotFoundException.class, () -> userService.updateUser(userId, new User()));
+
+        verify(userChangeService, never()).record(eq(UserChangeType.UPDATED), any(User.class));
+        verify(cohortService, never()).onUserUpdated(any(User.class));
+    }
+}
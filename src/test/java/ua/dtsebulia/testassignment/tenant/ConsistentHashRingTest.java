@@ -0,0 +1,60 @@
+package ua.dtsebulia.testassignment.tenant;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConsistentHashRingTest {
+
+    private static final int KEYS = 10_000;
+
+    @Test
+    public void testRoutingIsDeterministic() {
+        ConsistentHashRing first = new ConsistentHashRing(List.of("shard-1", "shard-2", "shard-3"), 128);
+        ConsistentHashRing second = new ConsistentHashRing(List.of("shard-3", "shard-1", "shard-2"), 128);
+
+        for (int i = 0; i < KEYS; i++) {
+            assertEquals(first.nodeFor("tenant-" + i), second.nodeFor("tenant-" + i));
+        }
+    }
+
+    @Test
+    public void testKeysSpreadOverAllNodes() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("shard-1", "shard-2", "shard-3"), 128);
+
+        Map<String, Integer> keysPerNode = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            keysPerNode.merge(ring.nodeFor("tenant-" + i), 1, Integer::sum);
+        }
+
+        assertEquals(3, keysPerNode.size());
+        keysPerNode.values().forEach(keys -> assertTrue(keys > KEYS / 6, "Unbalanced ring: " + keysPerNode));
+    }
+
+    @Test
+    public void testAddingNodeOnlyMovesKeysToIt() {
+        ConsistentHashRing before = new ConsistentHashRing(List.of("shard-1", "shard-2", "shard-3"), 128);
+        ConsistentHashRing after = new ConsistentHashRing(List.of("shard-1", "shard-2", "shard-3", "shard-4"), 128);
+
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String oldNode = before.nodeFor("tenant-" + i);
+            String newNode = after.nodeFor("tenant-" + i);
+            if (!oldNode.equals(newNode)) {
+                assertEquals("shard-4", newNode);
+                moved++;
+            }
+        }
+
+        assertTrue(moved < KEYS / 2, "Too many keys moved: " + moved);
+    }
+
+    @Test
+    public void testRingNeedsNodes() {
+        assertThrows(IllegalArgumentException.class, () -> new ConsistentHashRing(List.of(), 128));
+    }
+}
@@ -0,0 +1,165 @@
+package ua.dtsebulia.testassignment.tenant;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Routes four tenants over two in-memory H2 shards, with each tenant's schema created on the shard it is routed to.
+ */
+class TenantRoutingTest {
+
+    private static final List<String> TENANTS = List.of("alpha", "beta", "gamma", "delta");
+    private static final AtomicInteger RUNS = new AtomicInteger();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private TenantRouter tenantRouter;
+    private TenantFanOut tenantFanOut;
+    private TenantConnectionProvider tenantConnectionProvider;
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        TenancyProperties properties = new TenancyProperties();
+        properties.setEnabled(true);
+        properties.setDefaultTenant("alpha");
+        TENANTS.forEach(tenantId -> properties.getTenants().put(tenantId, tenantId));
+        // Fresh databases for every test, so nothing is left over from a pool that is still closing.
+        int run = RUNS.incrementAndGet();
+        properties.getShards().put("shard-1", shard("jdbc:h2:mem:routing-" + run + "-1;MODE=MySQL;NON_KEYWORDS=USER"));
+        properties.getShards().put("shard-2", shard("jdbc:h2:mem:routing-" + run + "-2;MODE=MySQL;NON_KEYWORDS=USER"));
+
+        tenantRouter = new TenantRouter(properties, meterRegistry);
+        tenantFanOut = new TenantFanOut(properties);
+        tenantConnectionProvider = new TenantConnectionProvider(tenantRouter);
+
+        for (String tenantId : TENANTS) {
+            try (Connection connection = tenantRouter.dataSourceFor(tenantId).getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("CREATE SCHEMA \"" + tenantId + "\"");
+                statement.execute("CREATE TABLE \"" + tenantId + "\".user (id INT PRIMARY KEY, email VARCHAR(255))");
+            }
+            insertUser(tenantId, 1, "first@" + tenantId + ".com");
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        tenantFanOut.shutdown();
+        tenantRouter.close();
+    }
+
+    @Test
+    public void testTenantsAreSpreadOverBothShards() {
+        Set<DataSource> shards = new HashSet<>();
+        TENANTS.forEach(tenantId -> shards.add(tenantRouter.dataSourceFor(tenantId)));
+
+        assertEquals(2, shards.size());
+        assertSame(tenantRouter.dataSourceFor("alpha"), tenantRouter.dataSourceFor(null));
+    }
+
+    @Test
+    public void testShardPoolsReportMetrics() {
+        assertEquals(2, meterRegistry.find("hikaricp.connections.pending").gauges().size());
+        assertNotNull(meterRegistry.find("hikaricp.connections.pending").tag("pool", "shard-shard-2").gauge());
+    }
+
+    @Test
+    public void testTenantSchemaOnlyExistsOnItsShard() throws SQLException {
+        for (String tenantId : TENANTS) {
+            DataSource otherShard = TENANTS.stream()
+                    .map(tenantRouter::dataSourceFor)
+                    .filter(dataSource -> dataSource != tenantRouter.dataSourceFor(tenantId))
+                    .findFirst()
+                    .orElseThrow();
+            assertTrue(schemaExists(tenantRouter.dataSourceFor(tenantId), tenantId));
+            assertFalse(schemaExists(otherShard, tenantId));
+        }
+    }
+
+    @Test
+    public void testTenantsOnlySeeTheirOwnUsers() throws SQLException {
+        insertUser("gamma", 2, "second@gamma.com");
+
+        assertEquals(List.of("first@alpha.com"), emailsOf("alpha"));
+        assertEquals(List.of("first@gamma.com", "second@gamma.com"), emailsOf("gamma"));
+    }
+
+    @Test
+    public void testFanOutMergesUsersOfAllTenants() {
+        List<String> emails = tenantFanOut.query(() -> {
+            try {
+                return emailsOf(TenantContext.getTenantId());
+            } catch (SQLException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }, Comparator.naturalOrder());
+
+        assertEquals(List.of("first@alpha.com", "first@beta.com", "first@delta.com", "first@gamma.com"), emails);
+        assertNull(TenantContext.getTenantId());
+    }
+
+    // Helper methods to read and write users through the tenant's connection.
+
+    private static TenancyProperties.Shard shard(String url) {
+        TenancyProperties.Shard shard = new TenancyProperties.Shard();
+        shard.setUrl(url);
+        shard.setUsername("sa");
+        shard.setPassword("");
+        shard.setMaximumPoolSize(2);
+        return shard;
+    }
+
+    private void insertUser(String tenantId, int id, String email) throws SQLException {
+        Connection connection = tenantConnectionProvider.getConnection(tenantId);
+        try (PreparedStatement statement = connection.prepareStatement("INSERT INTO user (id, email) VALUES (?, ?)")) {
+            statement.setInt(1, id);
+            statement.setString(2, email);
+            statement.executeUpdate();
+        } finally {
+            tenantConnectionProvider.releaseConnection(tenantId, connection);
+        }
+    }
+
+    private List<String> emailsOf(String tenantId) throws SQLException {
+        Connection connection = tenantConnectionProvider.getConnection(tenantId);
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT email FROM user ORDER BY id")) {
+            List<String> emails = new ArrayList<>();
+            while (resultSet.next()) {
+                emails.add(resultSet.getString(1));
+            }
+            return emails;
+        } finally {
+            tenantConnectionProvider.releaseConnection(tenantId, connection);
+        }
+    }
+
+    private static boolean schemaExists(DataSource dataSource, String schema) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(
+                     "SELECT COUNT(*) FROM INFORMATION_SCHEMA.SCHEMATA WHERE SCHEMA_NAME = ?")) {
+            statement.setString(1, schema);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getInt(1) > 0;
+            }
+        }
+    }
+}
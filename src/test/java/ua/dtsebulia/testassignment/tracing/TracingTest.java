@@ -0,0 +1,95 @@
+package ua.dtsebulia.testassignment.tracing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TracingTest {
+
+    @AfterEach
+    public void tearDown() {
+        Tracing.end();
+    }
+
+    @Test
+    public void testNestedSpansAreRecorded() {
+        Trace trace = Tracing.begin(true, 10);
+
+        try (Span controller = Tracing.startSpan("UserController.createUser")) {
+            try (Span service = Tracing.startSpan("UserService.createUser")) {
+                assertTrue(Tracing.isSampling());
+            }
+        }
+
+        List<Trace.SpanRecord> spans = trace.getSpans();
+        assertEquals(2, spans.size());
+        assertEquals("UserService.createUser", spans.get(0).name());
+        assertEquals(1, spans.get(0).depth());
+        assertEquals("UserController.createUser", spans.get(1).name());
+        assertEquals(0, spans.get(1).depth());
+    }
+
+    @Test
+    public void testSpansAreBounded() {
+        Trace trace = Tracing.begin(true, 3);
+
+        for (int i = 0; i < 10; i++) {
+            try (Span span = Tracing.startSpan("span-" + i)) {
+                assertNotNull(span);
+            }
+        }
+
+        assertEquals(3, trace.getSpans().size());
+    }
+
+    @Test
+    public void testUnsampledRequestCountsStatementsOnly() {
+        Trace trace = Tracing.begin(false, 10);
+
+        try (Span span = Tracing.startSpan("UserService.getAllUsers")) {
+            Tracing.recordStatement("select * from user");
+        }
+
+        assertFalse(Tracing.isSampling());
+        assertTrue(trace.getSpans().isEmpty());
+        assertEquals(1, trace.getStatementCount());
+    }
+
+    @Test
+    public void testRepeatedStatementsAreDetected() {
+        Trace trace = Tracing.begin(false, 10);
+
+        Tracing.recordStatement("select * from user");
+        for (int i = 0; i < 5; i++) {
+            Tracing.recordStatement("select * from user_change where user_id=?");
+        }
+
+        assertEquals(List.of("select * from user_change where user_id=?"), trace.repeatedStatements(5));
+        assertEquals(6, trace.getStatementCount());
+    }
+
+    @Test
+    public void testPropagatedTraceCountsStatementsOfOtherThreads() {
+        Trace trace = Tracing.begin(true, 10);
+
+        CompletableFuture.supplyAsync(Tracing.propagate(() -> {
+            Tracing.recordStatement("select * from user");
+            return Tracing.startSpan("UserRepository.findAll");
+        })).join().close();
+        Tracing.recordStatement("select * from user");
+
+        assertEquals(2, trace.getStatementCount());
+        assertEquals(List.of("select * from user"), trace.repeatedStatements(2));
+        assertTrue(trace.getSpans().isEmpty());
+    }
+
+    @Test
+    public void testStartSpanWithoutTraceIsNoop() {
+        assertSame(Span.NOOP, Tracing.startSpan("UserService.getUserById"));
+        assertFalse(Tracing.isSampling());
+    }
+}